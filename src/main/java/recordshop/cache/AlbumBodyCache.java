@@ -0,0 +1,95 @@
+package recordshop.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumDTO;
+import recordshop.event.AlbumChangedEvent;
+
+import java.io.UncheckedIOException;
+
+@Component
+public class AlbumBodyCache {
+
+    public static final String CACHE_NAME = "albumBodies";
+    static final int ENTRY_WEIGHT = 1024;
+
+    private final Cache<Object, Object> cache;
+    private final JacksonFormats jacksonFormats;
+
+    @Autowired
+    public AlbumBodyCache(CacheManager cacheManager, JacksonFormats jacksonFormats) {
+        this.cache = ((CaffeineCache) cacheManager.getCache(CACHE_NAME)).getNativeCache();
+        this.jacksonFormats = jacksonFormats;
+    }
+
+    public byte[] get(AlbumDTO album, MediaType mediaType) {
+        Key key = new Key(album.getId(), mediaType);
+
+        if (cache.getIfPresent(key) instanceof Body cached && cached.album().equals(album)) {
+            return cached.bytes();
+        }
+
+        Body body = encode(album, mediaType);
+        cache.put(key, body);
+
+        return body.bytes();
+    }
+
+    public static int weigh(Object key, Object value) {
+        if (value instanceof Body body) {
+            return ENTRY_WEIGHT + body.bytes().length;
+        }
+
+        return ENTRY_WEIGHT;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlbumChanged(AlbumChangedEvent event) {
+        AlbumDTO current = event.getCurrent();
+
+        for (MediaType mediaType : jacksonFormats.getMediaTypes()) {
+            Key key = new Key(event.getAlbumId(), mediaType);
+
+            if (current == null) {
+                cache.invalidate(key);
+            } else {
+                cache.asMap().computeIfPresent(key, (cachedKey, cached) -> encode(current, mediaType));
+            }
+        }
+    }
+
+    public void invalidate(Long albumId) {
+        for (MediaType mediaType : jacksonFormats.getMediaTypes()) {
+            cache.invalidate(new Key(albumId, mediaType));
+        }
+    }
+
+    public void invalidateAll() {
+        cache.invalidateAll();
+    }
+
+    public byte[] encode(Object value, MediaType mediaType) {
+        try {
+            return jacksonFormats.mapper(mediaType).writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Body encode(AlbumDTO album, MediaType mediaType) {
+        return new Body(album, encode((Object) album, mediaType));
+    }
+
+    private record Key(Long albumId, MediaType mediaType) {
+    }
+
+    private record Body(AlbumDTO album, byte[] bytes) {
+    }
+}
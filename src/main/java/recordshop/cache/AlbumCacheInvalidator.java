@@ -0,0 +1,122 @@
+package recordshop.cache;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.dto.AlbumDTO;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.search.AlbumSearchIndex;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Component
+@ConditionalOnExpression("!'${recordshop.cache.invalidation.bus:none}'.equalsIgnoreCase('none')")
+public class AlbumCacheInvalidator implements CacheInvalidationListener {
+
+    private static final String ALBUMS_CACHE_NAME = "albums";
+
+    private final CacheInvalidationBus bus;
+    private final CacheManager cacheManager;
+    private final AlbumQueryCache albumQueryCache;
+    private final AlbumBodyCache albumBodyCache;
+    private final AlbumSearchIndex albumSearchIndex;
+
+    @Autowired
+    public AlbumCacheInvalidator(CacheInvalidationBus bus, CacheManager cacheManager, AlbumQueryCache albumQueryCache,
+                                 AlbumBodyCache albumBodyCache, AlbumSearchIndex albumSearchIndex) {
+        this.bus = bus;
+        this.cacheManager = cacheManager;
+        this.albumQueryCache = albumQueryCache;
+        this.albumBodyCache = albumBodyCache;
+        this.albumSearchIndex = albumSearchIndex;
+
+        bus.subscribe(this);
+    }
+
+    @EventListener
+    public void onAlbumChanged(AlbumChangedEvent event) {
+        AlbumInvalidation invalidation = AlbumInvalidation.of(event);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            bus.publish(this, Set.of(invalidation));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        Set<AlbumInvalidation> pending = (Set<AlbumInvalidation>) TransactionSynchronizationManager.getResource(this);
+
+        if (pending == null) {
+            Set<AlbumInvalidation> invalidations = new LinkedHashSet<>();
+            TransactionSynchronizationManager.bindResource(this, invalidations);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    bus.publish(AlbumCacheInvalidator.this, invalidations);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AlbumCacheInvalidator.this);
+                }
+            });
+            pending = invalidations;
+        }
+
+        pending.add(invalidation);
+    }
+
+    @Override
+    public void invalidate(Collection<AlbumInvalidation> invalidations) {
+        Cache albumsCache = cacheManager.getCache(ALBUMS_CACHE_NAME);
+        Set<Long> albumIds = new LinkedHashSet<>();
+        List<AlbumDTO> changedAlbums = new ArrayList<>();
+        boolean listsUnknown = false;
+
+        for (AlbumInvalidation invalidation : invalidations) {
+            albumIds.add(invalidation.getAlbumId());
+
+            if (albumsCache != null) {
+                albumsCache.evict(invalidation.getAlbumId());
+            }
+
+            albumBodyCache.invalidate(invalidation.getAlbumId());
+
+            if (invalidation.isUnknown()) {
+                listsUnknown = true;
+            } else {
+                changedAlbums.add(invalidation.getPrevious());
+                changedAlbums.add(invalidation.getCurrent());
+            }
+        }
+
+        if (listsUnknown) {
+            albumQueryCache.invalidateAll();
+        } else {
+            albumQueryCache.invalidate(changedAlbums);
+        }
+
+        albumSearchIndex.reindex(albumIds);
+    }
+
+    @Override
+    public void invalidateAll() {
+        Cache albumsCache = cacheManager.getCache(ALBUMS_CACHE_NAME);
+
+        if (albumsCache != null) {
+            albumsCache.clear();
+        }
+
+        albumBodyCache.invalidateAll();
+        albumQueryCache.invalidateAll();
+        albumSearchIndex.load();
+    }
+}
@@ -0,0 +1,48 @@
+package recordshop.cache;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.ArtistDTO;
+import recordshop.event.AlbumChangedEvent;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumInvalidation {
+    private Long albumId;
+    private AlbumDTO previous;
+    private AlbumDTO current;
+
+    public static AlbumInvalidation of(AlbumChangedEvent event) {
+        return new AlbumInvalidation(event.getAlbumId(), filterFields(event.getPrevious()), filterFields(event.getCurrent()));
+    }
+
+    public static AlbumInvalidation unknown(Long albumId) {
+        return new AlbumInvalidation(albumId, null, null);
+    }
+
+    @JsonIgnore
+    public boolean isUnknown() {
+        return previous == null && current == null;
+    }
+
+    private static AlbumDTO filterFields(AlbumDTO album) {
+        if (album == null) {
+            return null;
+        }
+
+        AlbumDTO filterFields = new AlbumDTO();
+        filterFields.setId(album.getId());
+        filterFields.setGenre(album.getGenre());
+        filterFields.setReleaseYear(album.getReleaseYear());
+
+        if (album.getArtist() != null) {
+            filterFields.setArtist(new ArtistDTO(null, album.getArtist().getName(), null, null));
+        }
+
+        return filterFields;
+    }
+}
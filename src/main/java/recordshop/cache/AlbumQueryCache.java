@@ -0,0 +1,115 @@
+package recordshop.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+import recordshop.event.AlbumChangedEvent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class AlbumQueryCache {
+
+    public static final String CACHE_NAME = "albumLists";
+    static final int ENTRY_WEIGHT = 1024;
+
+    private final Cache<Object, Object> cache;
+    private final SingleFlight<AlbumQueryKey, Object> loads;
+    private final AtomicLong generation = new AtomicLong();
+
+    @Autowired
+    public AlbumQueryCache(CacheManager cacheManager, SingleFlight<AlbumQueryKey, Object> albumQueryLoads) {
+        this.cache = ((CaffeineCache) cacheManager.getCache(CACHE_NAME)).getNativeCache();
+        this.loads = albumQueryLoads;
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T get(AlbumQueryKey key, Supplier<T> loader) {
+        T cached = (T) cache.getIfPresent(key);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        return (T) loads.load(key, () -> {
+            long loadGeneration = generation.get();
+            T loaded = loader.get();
+
+            if (loaded != null && generation.get() == loadGeneration) {
+                cache.put(key, loaded);
+            }
+
+            return loaded;
+        });
+    }
+
+    public static int weigh(Object key, Object value) {
+        if (value instanceof EncodedAlbumListDTO list) {
+            return ENTRY_WEIGHT + list.getBody().length;
+        }
+
+        return ENTRY_WEIGHT;
+    }
+
+    @EventListener
+    public void onAlbumChanged(AlbumChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(Arrays.asList(event.getPrevious(), event.getCurrent()));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AlbumDTO> pending = (List<AlbumDTO>) TransactionSynchronizationManager.getResource(this);
+
+        if (pending == null) {
+            List<AlbumDTO> changedAlbums = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changedAlbums);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(changedAlbums);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AlbumQueryCache.this);
+                }
+            });
+            pending = changedAlbums;
+        }
+
+        pending.add(event.getPrevious());
+        pending.add(event.getCurrent());
+    }
+
+    public void invalidate(Collection<AlbumDTO> albums) {
+        List<AlbumDTO> changedAlbums = albums.stream().filter(Objects::nonNull).toList();
+
+        if (changedAlbums.isEmpty()) {
+            return;
+        }
+
+        generation.incrementAndGet();
+
+        cache.asMap().keySet().removeIf(key -> key instanceof AlbumQueryKey queryKey
+                && changedAlbums.stream().anyMatch(queryKey::matches));
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        cache.invalidateAll();
+    }
+}
@@ -0,0 +1,55 @@
+package recordshop.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import org.springframework.http.MediaType;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+
+import java.util.Objects;
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class AlbumQueryKey {
+    private View view;
+    private AlbumFilter filter;
+    private Integer limit;
+    private Long afterId;
+    private Set<AlbumField> fields;
+    private MediaType mediaType;
+
+    public enum View {
+        LIST,
+        ENCODED,
+        FACETS,
+        VALIDATOR
+    }
+
+    public static AlbumQueryKey of(AlbumFilter filter, Integer limit, Long afterId) {
+        return new AlbumQueryKey(View.LIST, normalize(filter), limit, afterId, null, null);
+    }
+
+    public static AlbumQueryKey encoded(AlbumFilter filter, Set<AlbumField> fields, Integer limit, Long afterId,
+                                        MediaType mediaType) {
+        return new AlbumQueryKey(View.ENCODED, normalize(filter), limit, afterId, fields, mediaType);
+    }
+
+    public static AlbumQueryKey facets(AlbumFilter filter) {
+        return new AlbumQueryKey(View.FACETS, normalize(filter), null, null, null, null);
+    }
+
+    public static AlbumQueryKey validator(AlbumFilter filter) {
+        return new AlbumQueryKey(View.VALIDATOR, normalize(filter), null, null, null, null);
+    }
+
+    public boolean matches(AlbumDTO album) {
+        return filter.matches(album)
+                && (afterId == null || Objects.requireNonNullElse(album.getId(), Long.MAX_VALUE) > afterId);
+    }
+
+    private static AlbumFilter normalize(AlbumFilter filter) {
+        return filter == null ? new AlbumFilter() : filter.normalized();
+    }
+}
@@ -0,0 +1,8 @@
+package recordshop.cache;
+
+import java.util.Collection;
+
+public interface CacheInvalidationBus {
+    void publish(CacheInvalidationListener sender, Collection<AlbumInvalidation> invalidations);
+    void subscribe(CacheInvalidationListener listener);
+}
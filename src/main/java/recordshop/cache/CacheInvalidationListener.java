@@ -0,0 +1,8 @@
+package recordshop.cache;
+
+import java.util.Collection;
+
+public interface CacheInvalidationListener {
+    void invalidate(Collection<AlbumInvalidation> invalidations);
+    void invalidateAll();
+}
@@ -0,0 +1,42 @@
+package recordshop.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+public class LoopbackCacheInvalidationBus implements CacheInvalidationBus {
+
+    private final List<CacheInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(CacheInvalidationListener sender, Collection<AlbumInvalidation> invalidations) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            List<AlbumInvalidation> committed = List.copyOf(invalidations);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    deliver(sender, committed);
+                }
+            });
+            return;
+        }
+
+        deliver(sender, invalidations);
+    }
+
+    @Override
+    public void subscribe(CacheInvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    private void deliver(CacheInvalidationListener sender, Collection<AlbumInvalidation> invalidations) {
+        for (CacheInvalidationListener listener : listeners) {
+            if (listener != sender) {
+                listener.invalidate(invalidations);
+            }
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package recordshop.cache;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.jdbc.core.JdbcTemplate;
+import recordshop.config.CacheProperties;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Pattern;
+
+@Slf4j
+public class PostgresCacheInvalidationBus implements CacheInvalidationBus, AutoCloseable {
+
+    static final int MAX_PAYLOAD_LENGTH = 7900;
+    static final String NOTIFY_SQL = "select pg_notify(?, ?)";
+
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]*");
+    private static final char ORIGIN_SEPARATOR = '|';
+    private static final char INVALIDATION_SEPARATOR = ',';
+
+    private final DataSource listenerDataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final ObjectReader invalidationsReader;
+    private final CacheProperties.Invalidation properties;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final List<CacheInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+    private final Thread listenerThread;
+    private volatile boolean running;
+
+    public PostgresCacheInvalidationBus(DataSource dataSource, DataSource listenerDataSource, ObjectMapper objectMapper,
+                                        CacheProperties.Invalidation properties) {
+        if (!CHANNEL_NAME.matcher(properties.getChannel()).matches()) {
+            throw new IllegalArgumentException(String.format("Invalid invalidation channel '%s'", properties.getChannel()));
+        }
+
+        this.listenerDataSource = listenerDataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+        this.invalidationsReader = this.objectMapper.readerForListOf(AlbumInvalidation.class);
+        this.properties = properties;
+        this.listenerThread = Thread.ofPlatform()
+                .name("cache-invalidation-listener")
+                .daemon()
+                .unstarted(this::listen);
+    }
+
+    public void start() {
+        running = true;
+        listenerThread.start();
+    }
+
+    @Override
+    public void close() throws InterruptedException {
+        running = false;
+        listenerThread.join(properties.getPollTimeout().multipliedBy(2).toMillis());
+    }
+
+    @Override
+    public void publish(CacheInvalidationListener sender, Collection<AlbumInvalidation> invalidations) {
+        for (String payload : payloads(invalidations)) {
+            jdbcTemplate.queryForList(NOTIFY_SQL, properties.getChannel(), payload);
+        }
+    }
+
+    @Override
+    public void subscribe(CacheInvalidationListener listener) {
+        listeners.add(listener);
+    }
+
+    void receive(String payload) {
+        int separator = payload.indexOf(ORIGIN_SEPARATOR);
+
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return;
+        }
+
+        List<AlbumInvalidation> invalidations;
+
+        try {
+            invalidations = invalidationsReader.readValue(payload.substring(separator + 1));
+        } catch (JsonProcessingException e) {
+            log.warn("Unreadable cache invalidation on channel '{}', clearing all album caches", properties.getChannel(), e);
+            listeners.forEach(CacheInvalidationListener::invalidateAll);
+            return;
+        }
+
+        listeners.forEach(listener -> listener.invalidate(invalidations));
+    }
+
+    List<String> payloads(Collection<AlbumInvalidation> invalidations) {
+        String prefix = nodeId + ORIGIN_SEPARATOR + '[';
+        int maxEntryLength = MAX_PAYLOAD_LENGTH - prefix.length() - 1;
+        List<String> payloads = new ArrayList<>();
+        StringBuilder payload = new StringBuilder(prefix);
+        int payloadLength = prefix.length();
+
+        for (AlbumInvalidation invalidation : invalidations) {
+            String entry = toJson(invalidation);
+            int entryLength = entry.getBytes(StandardCharsets.UTF_8).length;
+
+            if (entryLength > maxEntryLength) {
+                entry = toJson(AlbumInvalidation.unknown(invalidation.getAlbumId()));
+                entryLength = entry.length();
+            }
+
+            if (payload.length() > prefix.length() && payloadLength + 1 + entryLength + 1 > MAX_PAYLOAD_LENGTH) {
+                payloads.add(payload.append(']').toString());
+                payload.setLength(0);
+                payload.append(prefix);
+                payloadLength = prefix.length();
+            }
+
+            if (payload.length() > prefix.length()) {
+                payload.append(INVALIDATION_SEPARATOR);
+                payloadLength++;
+            }
+
+            payload.append(entry);
+            payloadLength += entryLength;
+        }
+
+        if (payload.length() > prefix.length()) {
+            payloads.add(payload.append(']').toString());
+        }
+
+        return payloads;
+    }
+
+    private String toJson(AlbumInvalidation invalidation) {
+        try {
+            return objectMapper.writeValueAsString(invalidation);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+
+        while (running) {
+            try (Connection connection = listenerDataSource.getConnection();
+                 Statement statement = connection.createStatement()) {
+                statement.execute("LISTEN " + properties.getChannel());
+
+                if (reconnecting) {
+                    listeners.forEach(CacheInvalidationListener::invalidateAll);
+                    reconnecting = false;
+                }
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                int pollTimeout = Math.toIntExact(properties.getPollTimeout().toMillis());
+
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeout);
+
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receive(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+
+                log.warn("Lost cache invalidation channel '{}', reconnecting", properties.getChannel(), e);
+                reconnecting = true;
+
+                try {
+                    Thread.sleep(properties.getReconnectDelay());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package recordshop.changes;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.config.ChangeFeedProperties;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.model.AlbumChangeType;
+import recordshop.repository.AlbumChangeRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+public class AlbumChangeLog {
+
+    static final String INSERT_SQL =
+            "insert into album_changes (album_id, change_type, changed_at) values (?, ?, cast(clock_timestamp() as timestamp))";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AlbumChangeRepository albumChangeRepository;
+    private final ChangeFeedProperties properties;
+
+    @Autowired
+    public AlbumChangeLog(JdbcTemplate jdbcTemplate, AlbumChangeRepository albumChangeRepository,
+                          ChangeFeedProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.albumChangeRepository = albumChangeRepository;
+        this.properties = properties;
+    }
+
+    @EventListener
+    public void onAlbumChanged(AlbumChangedEvent event) {
+        PendingChange change = new PendingChange(event.getAlbumId(),
+                event.getCurrent() == null ? AlbumChangeType.DELETE : AlbumChangeType.UPSERT);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            insert(List.of(change));
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<PendingChange> pending = (List<PendingChange>) TransactionSynchronizationManager.getResource(this);
+
+        if (pending == null) {
+            List<PendingChange> changes = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(this, changes);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    insert(changes);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(AlbumChangeLog.this);
+                }
+            });
+            pending = changes;
+        }
+
+        pending.add(change);
+    }
+
+    @Scheduled(fixedDelayString = "${recordshop.changes.purge-interval:1h}")
+    public int purge() {
+        LocalDateTime cutoff = albumChangeRepository.findDatabaseTime()
+                .minus(properties.getRetention())
+                .minus(properties.getSettleTime());
+
+        int purged = 0;
+        int deleted;
+
+        do {
+            deleted = albumChangeRepository.deleteChangedBefore(cutoff, properties.getPurgeBatchSize());
+            purged += deleted;
+        } while (deleted == properties.getPurgeBatchSize());
+
+        return purged;
+    }
+
+    private void insert(List<PendingChange> changes) {
+        if (changes.isEmpty()) {
+            return;
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, changes.stream()
+                .map(change -> new Object[]{change.albumId(), change.type().name()})
+                .toList());
+    }
+
+    private record PendingChange(Long albumId, AlbumChangeType type) {
+    }
+}
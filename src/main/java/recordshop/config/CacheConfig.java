@@ -0,0 +1,58 @@
+package recordshop.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import recordshop.cache.AlbumBodyCache;
+import recordshop.cache.AlbumQueryCache;
+
+import java.util.Map;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    private static final String MAXIMUM_WEIGHT = "maximumWeight";
+    private static final Map<String, Weigher<Object, Object>> WEIGHERS = Map.of(
+            AlbumQueryCache.CACHE_NAME, AlbumQueryCache::weigh,
+            AlbumBodyCache.CACHE_NAME, AlbumBodyCache::weigh);
+
+    @Bean
+    public CacheManager cacheManager(CacheProperties cacheProperties) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+
+        if (cacheProperties.getDefaultSpec().contains(MAXIMUM_WEIGHT)) {
+            throw unweighableSpec("recordshop.cache.default-spec");
+        }
+
+        cacheManager.setCacheSpecification(cacheProperties.getDefaultSpec());
+
+        cacheProperties.getSpecs().forEach((cacheName, spec) -> {
+            Caffeine<Object, Object> caffeine = Caffeine.from(spec);
+
+            if (spec.contains(MAXIMUM_WEIGHT)) {
+                Weigher<Object, Object> weigher = WEIGHERS.get(cacheName);
+
+                if (weigher == null) {
+                    throw unweighableSpec("recordshop.cache.specs." + cacheName);
+                }
+
+                caffeine.weigher(weigher);
+            }
+
+            cacheManager.registerCustomCache(cacheName, caffeine.build());
+        });
+
+        return cacheManager;
+    }
+
+    private static IllegalStateException unweighableSpec(String property) {
+        return new IllegalStateException(property + " sets " + MAXIMUM_WEIGHT + ", but only the "
+                + AlbumQueryCache.CACHE_NAME + " and " + AlbumBodyCache.CACHE_NAME
+                + " caches can be weighed; use maximumSize instead");
+    }
+}
@@ -0,0 +1,35 @@
+package recordshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import recordshop.cache.LoopbackCacheInvalidationBus;
+import recordshop.cache.PostgresCacheInvalidationBus;
+
+import javax.sql.DataSource;
+
+@Configuration
+public class CacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "recordshop.cache.invalidation", name = "bus", havingValue = "loopback")
+    public LoopbackCacheInvalidationBus loopbackCacheInvalidationBus() {
+        return new LoopbackCacheInvalidationBus();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    @ConditionalOnProperty(prefix = "recordshop.cache.invalidation", name = "bus", havingValue = "postgres")
+    public PostgresCacheInvalidationBus postgresCacheInvalidationBus(DataSource dataSource,
+                                                                     DataSourceProperties dataSourceProperties,
+                                                                     ObjectMapper objectMapper,
+                                                                     CacheProperties cacheProperties) {
+        DataSource listenerDataSource = new DriverManagerDataSource(dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(), dataSourceProperties.determinePassword());
+
+        return new PostgresCacheInvalidationBus(dataSource, listenerDataSource, objectMapper,
+                cacheProperties.getInvalidation());
+    }
+}
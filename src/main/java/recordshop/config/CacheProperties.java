@@ -0,0 +1,30 @@
+package recordshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "recordshop.cache")
+public class CacheProperties {
+    private String defaultSpec = "maximumSize=1000,expireAfterWrite=10m,recordStats";
+    private Map<String, String> specs = new LinkedHashMap<>();
+    private Invalidation invalidation = new Invalidation();
+
+    @Data
+    public static class Invalidation {
+        private Bus bus = Bus.NONE;
+        private String channel = "album_invalidations";
+        private Duration pollTimeout = Duration.ofSeconds(1);
+        private Duration reconnectDelay = Duration.ofSeconds(5);
+
+        public enum Bus {
+            NONE,
+            LOOPBACK,
+            POSTGRES
+        }
+    }
+}
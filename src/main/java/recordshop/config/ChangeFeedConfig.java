@@ -0,0 +1,32 @@
+package recordshop.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+@Configuration
+@EnableConfigurationProperties(ChangeFeedProperties.class)
+public class ChangeFeedConfig {
+
+    static final String H2_CLOCK_TIMESTAMP_SQL =
+            "create alias if not exists clock_timestamp for '" + ChangeFeedConfig.class.getName() + ".clockTimestamp'";
+
+    @Autowired
+    public ChangeFeedConfig(JdbcTemplate jdbcTemplate) {
+        String databaseProduct = jdbcTemplate.execute(
+                (ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+
+        if ("H2".equals(databaseProduct)) {
+            jdbcTemplate.execute(H2_CLOCK_TIMESTAMP_SQL);
+        }
+    }
+
+    public static Timestamp clockTimestamp() {
+        return Timestamp.valueOf(LocalDateTime.now());
+    }
+}
@@ -0,0 +1,15 @@
+package recordshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "recordshop.changes")
+public class ChangeFeedProperties {
+    private Duration retention = Duration.ofDays(7);
+    private Duration settleTime = Duration.ofSeconds(1);
+    private Duration purgeInterval = Duration.ofHours(1);
+    private int purgeBatchSize = 1000;
+}
@@ -0,0 +1,14 @@
+package recordshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "recordshop.concurrency")
+public class ConcurrencyLimitProperties {
+    private int maxRequests = 0;
+    private int requestsPerConnection = 4;
+    private Duration acquireTimeout = Duration.ofSeconds(5);
+}
@@ -0,0 +1,20 @@
+package recordshop.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(HotStockProperties.class)
+public class HotStockConfig {
+
+    @Autowired
+    public HotStockConfig(HotStockProperties hotStockProperties, CacheProperties cacheProperties) {
+        if (hotStockProperties.isEnabled()
+                && cacheProperties.getInvalidation().getBus() != CacheProperties.Invalidation.Bus.NONE) {
+            throw new IllegalStateException("recordshop.stock.hot.enabled keeps stock counters in one instance and "
+                    + "cannot be combined with recordshop.cache.invalidation.bus="
+                    + cacheProperties.getInvalidation().getBus().name().toLowerCase());
+        }
+    }
+}
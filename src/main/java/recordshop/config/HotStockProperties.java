@@ -0,0 +1,22 @@
+package recordshop.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "recordshop.stock.hot")
+public class HotStockProperties {
+    private boolean enabled = false;
+    private long promotionThreshold = 50;
+    private Duration flushInterval = Duration.ofMillis(200);
+    private Duration idleTimeout = Duration.ofSeconds(60);
+    private int stripes = Runtime.getRuntime().availableProcessors();
+    private Durability durability = Durability.GROUP_COMMIT;
+
+    public enum Durability {
+        GROUP_COMMIT,
+        WRITE_BEHIND
+    }
+}
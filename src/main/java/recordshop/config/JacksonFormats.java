@@ -0,0 +1,87 @@
+package recordshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+public class JacksonFormats {
+
+    public static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    public static final MediaType APPLICATION_SMILE = MediaType.parseMediaType(APPLICATION_SMILE_VALUE);
+
+    private final Map<MediaType, ObjectMapper> mappers = new LinkedHashMap<>();
+
+    public JacksonFormats(ObjectMapper objectMapper) {
+        mappers.put(MediaType.APPLICATION_JSON, objectMapper);
+        mappers.put(MediaType.APPLICATION_CBOR, objectMapper.copyWith(new CBORFactory()));
+        mappers.put(APPLICATION_SMILE, objectMapper.copyWith(new SmileFactory()));
+    }
+
+    public List<MediaType> getMediaTypes() {
+        return List.copyOf(mappers.keySet());
+    }
+
+    public boolean supports(MediaType mediaType) {
+        return mappers.keySet().stream().anyMatch(supported -> supported.equalsTypeAndSubtype(mediaType));
+    }
+
+    public ObjectMapper mapper(MediaType mediaType) {
+        return mappers.entrySet().stream()
+                .filter(entry -> entry.getKey().equalsTypeAndSubtype(mediaType))
+                .map(Map.Entry::getValue)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(String.format("Albums cannot be encoded as '%s'", mediaType)));
+    }
+
+    public MediaType negotiate(String accept) throws HttpMediaTypeNotAcceptableException {
+        if (accept == null || accept.isBlank()) {
+            return MediaType.APPLICATION_JSON;
+        }
+
+        List<MediaType> acceptedTypes = MediaType.parseMediaTypes(accept);
+        MediaType negotiated = null;
+        MediaType negotiatedRange = null;
+
+        for (MediaType mediaType : mappers.keySet()) {
+            MediaType range = null;
+
+            for (MediaType acceptedType : acceptedTypes) {
+                if (acceptedType.includes(mediaType) && (range == null || specificity(acceptedType) > specificity(range))) {
+                    range = acceptedType;
+                }
+            }
+
+            if (range == null || range.getQualityValue() == 0) {
+                continue;
+            }
+
+            if (negotiatedRange == null
+                    || range.getQualityValue() > negotiatedRange.getQualityValue()
+                    || (range.getQualityValue() == negotiatedRange.getQualityValue()
+                    && specificity(range) > specificity(negotiatedRange))) {
+                negotiated = mediaType;
+                negotiatedRange = range;
+            }
+        }
+
+        if (negotiated == null) {
+            throw new HttpMediaTypeNotAcceptableException(getMediaTypes());
+        }
+
+        return negotiated;
+    }
+
+    private static int specificity(MediaType range) {
+        if (range.isWildcardType()) {
+            return 0;
+        }
+
+        return range.isWildcardSubtype() ? 1 : 2;
+    }
+}
@@ -0,0 +1,27 @@
+package recordshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+@Configuration
+public class JacksonFormatsConfig {
+
+    @Bean
+    public JacksonFormats jacksonFormats(ObjectMapper objectMapper) {
+        return new JacksonFormats(objectMapper);
+    }
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(JacksonFormats jacksonFormats) {
+        return new MappingJackson2CborHttpMessageConverter(jacksonFormats.mapper(MediaType.APPLICATION_CBOR));
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(JacksonFormats jacksonFormats) {
+        return new MappingJackson2SmileHttpMessageConverter(jacksonFormats.mapper(JacksonFormats.APPLICATION_SMILE));
+    }
+}
@@ -0,0 +1,60 @@
+package recordshop.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import recordshop.dto.AlbumFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Configuration
+public class MetricsConfig {
+
+    static final String NO_FILTER = "none";
+
+    private static final List<String> FILTER_FIELDS =
+            List.of("genre", "releaseYear", "releaseYearFrom", "releaseYearTo", "artistName");
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry, MetricsConfig::tags);
+    }
+
+    static Tags tags(ProceedingJoinPoint joinPoint) {
+        MethodSignature signature = (MethodSignature) joinPoint.getSignature();
+
+        return Tags.of("class", signature.getDeclaringType().getSimpleName(),
+                "method", signature.getName(),
+                "filter", filterType(signature.getParameterNames(), joinPoint.getArgs()));
+    }
+
+    static String filterType(String[] parameterNames, Object[] args) {
+        List<String> fields = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof AlbumFilter filter) {
+                return filterType(filter);
+            }
+
+            if (parameterNames != null && args[i] != null && FILTER_FIELDS.contains(parameterNames[i])
+                    && !(args[i] instanceof String value && value.isBlank())) {
+                fields.add(parameterNames[i]);
+            }
+        }
+
+        return fields.isEmpty() ? NO_FILTER : String.join("+", fields);
+    }
+
+    static String filterType(AlbumFilter filter) {
+        AlbumFilter normalized = filter.normalized();
+
+        return filterType(FILTER_FIELDS.toArray(String[]::new), new Object[]{normalized.getGenre(),
+                normalized.getReleaseYear(), normalized.getReleaseYearFrom(), normalized.getReleaseYearTo(),
+                normalized.getArtistName()});
+    }
+}
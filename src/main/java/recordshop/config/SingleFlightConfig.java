@@ -0,0 +1,22 @@
+package recordshop.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import recordshop.cache.AlbumQueryCache;
+import recordshop.cache.AlbumQueryKey;
+import recordshop.cache.SingleFlight;
+import recordshop.dto.AlbumDTO;
+
+@Configuration
+public class SingleFlightConfig {
+
+    @Bean
+    public SingleFlight<Long, AlbumDTO> albumLoads() {
+        return new SingleFlight<>("albums");
+    }
+
+    @Bean
+    public SingleFlight<AlbumQueryKey, Object> albumQueryLoads() {
+        return new SingleFlight<>(AlbumQueryCache.CACHE_NAME);
+    }
+}
@@ -0,0 +1,57 @@
+package recordshop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.actuate.jdbc.DataSourceHealthIndicator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+@EnableConfigurationProperties(ConcurrencyLimitProperties.class)
+public class VirtualThreadConfig {
+
+    static final int DEFAULT_POOL_SIZE = 10;
+
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            ObjectProvider<ConcurrencyLimitProperties> properties) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionLimitingDataSource)) {
+                    ConcurrencyLimitProperties limits = properties.getObject();
+
+                    return new ConnectionLimitingDataSource(dataSource, maxRequests(limits, dataSource),
+                            limits.getAcquireTimeout());
+                }
+
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public DataSourceHealthIndicator dbHealthContributor(DataSource dataSource) {
+        return new DataSourceHealthIndicator(dataSource instanceof ConnectionLimitingDataSource limited
+                ? limited.getTargetDataSource()
+                : dataSource);
+    }
+
+    static int maxRequests(ConcurrencyLimitProperties properties, DataSource dataSource) {
+        if (properties.getMaxRequests() > 0) {
+            return properties.getMaxRequests();
+        }
+
+        int poolSize = dataSource instanceof HikariDataSource hikariDataSource
+                ? hikariDataSource.getMaximumPoolSize()
+                : DEFAULT_POOL_SIZE;
+
+        return poolSize * properties.getRequestsPerConnection();
+    }
+}
@@ -1,35 +1,160 @@
 package recordshop.controller;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.annotation.Timed;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumChangesDTO;
 import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFacetsDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumImportResultDTO;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.ArtistDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+import recordshop.dto.StockReservationDTO;
+import recordshop.exception.MalformedRequestBodyException;
+import recordshop.service.AlbumExportFormat;
 import recordshop.service.AlbumService;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
 
 @RestController
 @RequestMapping("/albums")
+@Timed("recordshop.albums.requests")
 public class AlbumController {
 
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    static final String GZIP_ENCODING = "gzip";
+
     @Autowired
     private AlbumService albumService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JacksonFormats jacksonFormats;
+
     @GetMapping
-    public ResponseEntity<List<AlbumDTO>> getAllAlbums(
+    public ResponseEntity<byte[]> getAllAlbums(
+            @RequestParam(value = "genre", required = false) String genre,
+            @RequestParam(value = "releaseYear", required = false) Integer releaseYear,
+            @RequestParam(value = "releaseYearFrom", required = false) Integer releaseYearFrom,
+            @RequestParam(value = "releaseYearTo", required = false) Integer releaseYearTo,
+            @RequestParam(value = "artist", required = false) String artistName,
+            @RequestParam(value = "limit", required = false) Integer limit,
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "fields", required = false) String fields,
+            WebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+
+        MediaType mediaType = jacksonFormats.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        AlbumFilter filter = new AlbumFilter(genre, releaseYear, releaseYearFrom, releaseYearTo, artistName);
+        AlbumListValidatorDTO validator = albumService.getAlbumsValidator(filter, fields, limit, after);
+
+        if (webRequest.checkNotModified(listETag(validator, mediaType, fields, limit, after),
+                epochMillis(validator.getLastModified()))) {
+            return null;
+        }
+
+        EncodedAlbumListDTO albums = albumService.getEncodedAlbums(filter, fields, limit, after, mediaType);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(mediaType)
+                .varyBy(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING);
+
+        if (albums.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, albums.getNextCursor());
+        }
+
+        if (!albums.isGzipped()) {
+            return response.body(albums.getBody());
+        }
+
+        if (acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING))) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING).body(albums.getBody());
+        }
+
+        return response.body(gunzip(albums.getBody()));
+    }
+
+    @GetMapping("/facets")
+    public ResponseEntity<AlbumFacetsDTO> getAlbumFacets(
             @RequestParam(value = "genre", required = false) String genre,
             @RequestParam(value = "releaseYear", required = false) Integer releaseYear,
+            @RequestParam(value = "releaseYearFrom", required = false) Integer releaseYearFrom,
+            @RequestParam(value = "releaseYearTo", required = false) Integer releaseYearTo,
             @RequestParam(value = "artist", required = false) String artistName) {
 
-        List<AlbumDTO> albums = albumService.getAllAlbums(genre, releaseYear, artistName);
+        AlbumFilter filter = new AlbumFilter(genre, releaseYear, releaseYearFrom, releaseYearTo, artistName);
+
+        return new ResponseEntity<>(albumService.getAlbumFacets(filter), HttpStatus.OK);
+    }
 
-        return new ResponseEntity<>(albums, HttpStatus.OK);
+    @GetMapping("/changes")
+    public ResponseEntity<AlbumChangesDTO> getAlbumChanges(@RequestParam(value = "since", required = false) String since,
+                                                           @RequestParam(value = "limit", required = false) Integer limit) {
+        return new ResponseEntity<>(albumService.getAlbumChanges(since, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/search")
+    public ResponseEntity<List<AlbumDTO>> searchAlbums(@RequestParam("q") String query,
+                                                       @RequestParam(value = "limit", required = false) Integer limit) {
+        return new ResponseEntity<>(albumService.searchAlbums(query, limit), HttpStatus.OK);
+    }
+
+    @GetMapping("/export")
+    public void exportAlbums(@RequestParam(value = "format", defaultValue = "ndjson") String format,
+                             HttpServletResponse response) throws IOException {
+        AlbumExportFormat exportFormat = AlbumExportFormat.fromParameter(format);
+
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                String.format("attachment; filename=\"albums.%s\"", exportFormat.getFileExtension()));
+
+        albumService.exportAlbums(exportFormat, response.getOutputStream());
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<AlbumDTO> getAlbumById(@PathVariable Long id) {
-        return new ResponseEntity<>(albumService.getAlbumById(id), HttpStatus.OK);
+    public ResponseEntity<byte[]> getAlbumById(@PathVariable Long id,
+                                               @RequestParam(value = "fields", required = false) String fields,
+                                               WebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = jacksonFormats.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        AlbumDTO album = fields == null ? albumService.getAlbumById(id) : albumService.getAlbumById(id, fields);
+
+        if (webRequest.checkNotModified(albumETag(album, mediaType, fields), epochMillis(lastModified(album)))) {
+            return null;
+        }
+
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(albumService.getAlbumBody(album, fields, mediaType));
     }
 
     @PostMapping
@@ -37,15 +162,166 @@ public class AlbumController {
         return new ResponseEntity<>(albumService.addAlbum(albumDTO), HttpStatus.CREATED);
     }
 
+    @PostMapping(value = "/batch", consumes = {MediaType.APPLICATION_JSON_VALUE, APPLICATION_NDJSON_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, JacksonFormats.APPLICATION_SMILE_VALUE})
+    public ResponseEntity<List<AlbumImportResultDTO>> importAlbums(HttpServletRequest request) throws IOException {
+        MediaType contentType = MediaType.parseMediaType(request.getContentType());
+        ObjectMapper reader = jacksonFormats.supports(contentType) ? jacksonFormats.mapper(contentType) : objectMapper;
+
+        try (MappingIterator<AlbumDTO> albums = reader.readerFor(AlbumDTO.class).readValues(request.getInputStream())) {
+            return new ResponseEntity<>(albumService.importAlbums(iterate(albums)), HttpStatus.OK);
+        }
+    }
+
+    @PostMapping("/{id}/reserve")
+    public ResponseEntity<AlbumDTO> reserveAlbum(@PathVariable Long id,
+                                                 @RequestParam(value = "qty", defaultValue = "1") Integer quantity) {
+        return new ResponseEntity<>(albumService.reserveAlbum(id, quantity), HttpStatus.OK);
+    }
+
+    @PostMapping("/reserve")
+    public ResponseEntity<List<AlbumDTO>> reserveAlbums(@RequestBody List<StockReservationDTO> reservations) {
+        return new ResponseEntity<>(albumService.reserveAlbums(reservations), HttpStatus.OK);
+    }
+
     @PutMapping("/{id}")
-    public ResponseEntity<AlbumDTO> updateAlbumById(@PathVariable Long id, @RequestBody AlbumDTO albumDTO) {
-        return new ResponseEntity<>(albumService.updateAlbumById(id, albumDTO), HttpStatus.OK);
+    public ResponseEntity<AlbumDTO> updateAlbumById(@PathVariable Long id, @RequestBody AlbumDTO albumDTO,
+                                                    WebRequest webRequest)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = jacksonFormats.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        AlbumDTO updatedAlbum = albumService.updateAlbumById(id, albumDTO, precondition(webRequest, mediaType));
+
+        return ResponseEntity.ok()
+                .eTag(albumETag(updatedAlbum, mediaType, null))
+                .body(updatedAlbum);
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<String> deleteAlbumById(@PathVariable Long id) {
-        albumService.deleteAlbumById(id);
+    public ResponseEntity<String> deleteAlbumById(@PathVariable Long id, WebRequest webRequest)
+            throws HttpMediaTypeNotAcceptableException {
+        MediaType mediaType = jacksonFormats.negotiate(webRequest.getHeader(HttpHeaders.ACCEPT));
+        albumService.deleteAlbumById(id, precondition(webRequest, mediaType));
 
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
+
+    private static Predicate<AlbumDTO> precondition(WebRequest webRequest, MediaType mediaType) {
+        if (webRequest.getHeader(HttpHeaders.IF_MATCH) == null
+                && webRequest.getHeader(HttpHeaders.IF_UNMODIFIED_SINCE) == null) {
+            return currentAlbum -> true;
+        }
+
+        return currentAlbum -> !webRequest.checkNotModified(albumETag(currentAlbum, mediaType, null),
+                epochMillis(lastModified(currentAlbum)));
+    }
+
+    static String albumETag(AlbumDTO album, MediaType mediaType, String fields) {
+        ArtistDTO artist = album.getArtist();
+
+        return String.format("\"%d-%d-%s-%s\"", album.getId(), album.getVersion() == null ? 0 : album.getVersion(),
+                versionOf(artist == null ? null : artist.getModifiedAt()), variantOf(mediaType, fields));
+    }
+
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].strip();
+
+            if (name.equalsIgnoreCase(GZIP_ENCODING) || name.equals("*")) {
+                return Arrays.stream(parameters).skip(1)
+                        .noneMatch(parameter -> parameter.strip().matches("[qQ]=0(\\.0{0,3})?"));
+            }
+        }
+
+        return false;
+    }
+
+    private static byte[] gunzip(byte[] body) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static String listETag(AlbumListValidatorDTO validator, MediaType mediaType, String fields, Integer limit,
+                           String after) {
+        return String.format("W/\"%d-%s-%s%s\"", validator.getCount(), versionOf(validator.getLastModified()),
+                variantOf(mediaType, fields), pageOf(limit, after));
+    }
+
+    private static String pageOf(Integer limit, String after) {
+        if (limit == null && after == null) {
+            return "";
+        }
+
+        return String.format("-%s.%s", limit == null ? "" : limit, after == null || after.isBlank() ? "" : after);
+    }
+
+    private static String variantOf(MediaType mediaType, String fields) {
+        if (fields == null) {
+            return mediaType.getSubtype();
+        }
+
+        CRC32 fieldSet = new CRC32();
+        fieldSet.update(Arrays.stream(fields.split(","))
+                .map(String::strip)
+                .sorted()
+                .distinct()
+                .collect(Collectors.joining(","))
+                .getBytes(StandardCharsets.UTF_8));
+
+        return mediaType.getSubtype() + "+" + Long.toHexString(fieldSet.getValue());
+    }
+
+    private static LocalDateTime lastModified(AlbumDTO album) {
+        LocalDateTime albumModifiedAt = album.getModifiedAt();
+        LocalDateTime artistModifiedAt = album.getArtist() == null ? null : album.getArtist().getModifiedAt();
+
+        if (albumModifiedAt == null || (artistModifiedAt != null && artistModifiedAt.isAfter(albumModifiedAt))) {
+            return artistModifiedAt;
+        }
+
+        return albumModifiedAt;
+    }
+
+    private static String versionOf(LocalDateTime time) {
+        if (time == null) {
+            return "0";
+        }
+
+        Instant instant = time.atZone(ZoneId.systemDefault()).toInstant();
+
+        return Long.toHexString(ChronoUnit.MICROS.between(Instant.EPOCH, instant));
+    }
+
+    private static long epochMillis(LocalDateTime time) {
+        return time == null ? -1 : time.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private Iterator<AlbumDTO> iterate(MappingIterator<AlbumDTO> albums) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                try {
+                    return albums.hasNextValue();
+                } catch (IOException e) {
+                    throw new MalformedRequestBodyException("Malformed album in request body");
+                }
+            }
+
+            @Override
+            public AlbumDTO next() {
+                try {
+                    return albums.nextValue();
+                } catch (IOException e) {
+                    throw new MalformedRequestBodyException("Malformed album in request body");
+                }
+            }
+        };
+    }
 }
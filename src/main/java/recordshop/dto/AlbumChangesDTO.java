@@ -0,0 +1,17 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumChangesDTO {
+    private List<AlbumDTO> upserted;
+    private List<Long> deleted;
+    private String nextToken;
+    private boolean hasMore;
+}
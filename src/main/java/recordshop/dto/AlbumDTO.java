@@ -1,5 +1,6 @@
 package recordshop.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,4 +20,7 @@ public class AlbumDTO {
     private Integer stockQuantity;
     private LocalDateTime createdAt;
     private LocalDateTime modifiedAt;
+
+    @JsonIgnore
+    private Long version;
 }
@@ -0,0 +1,17 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumFacetsDTO {
+    private List<FacetCountDTO<String>> genres;
+    private List<FacetCountDTO<Integer>> releaseYears;
+    private List<FacetCountDTO<Integer>> decades;
+    private List<FacetCountDTO<String>> artists;
+}
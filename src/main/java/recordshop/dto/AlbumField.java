@@ -0,0 +1,40 @@
+package recordshop.dto;
+
+import java.time.LocalDateTime;
+
+public enum AlbumField {
+    ID("id", Long.class),
+    NAME("name", String.class),
+    ARTIST_ID("artist.id", Long.class),
+    ARTIST_NAME("artist.name", String.class),
+    ARTIST_CREATED_AT("artist.createdAt", LocalDateTime.class),
+    ARTIST_MODIFIED_AT("artist.modifiedAt", LocalDateTime.class),
+    GENRE("genre", String.class),
+    COVER_ART_URL("coverArtUrl", String.class),
+    RELEASE_YEAR("releaseYear", Integer.class),
+    STOCK_QUANTITY("stockQuantity", Integer.class),
+    CREATED_AT("createdAt", LocalDateTime.class),
+    MODIFIED_AT("modifiedAt", LocalDateTime.class);
+
+    public static final String ARTIST_PREFIX = "artist.";
+
+    private final String path;
+    private final Class<?> type;
+
+    AlbumField(String path, Class<?> type) {
+        this.path = path;
+        this.type = type;
+    }
+
+    public String getPath() {
+        return path;
+    }
+
+    public Class<?> getType() {
+        return type;
+    }
+
+    public boolean isArtistField() {
+        return path.startsWith(ARTIST_PREFIX);
+    }
+}
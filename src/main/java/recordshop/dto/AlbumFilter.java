@@ -0,0 +1,33 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumFilter {
+    private String genre;
+    private Integer releaseYear;
+    private Integer releaseYearFrom;
+    private Integer releaseYearTo;
+    private String artistName;
+
+    public AlbumFilter normalized() {
+        return new AlbumFilter(blankToNull(genre), releaseYear, releaseYearFrom, releaseYearTo, blankToNull(artistName));
+    }
+
+    public boolean matches(AlbumDTO album) {
+        return album != null
+                && (genre == null || genre.equals(album.getGenre()))
+                && (releaseYear == null || releaseYear.equals(album.getReleaseYear()))
+                && (releaseYearFrom == null || (album.getReleaseYear() != null && album.getReleaseYear() >= releaseYearFrom))
+                && (releaseYearTo == null || (album.getReleaseYear() != null && album.getReleaseYear() <= releaseYearTo))
+                && (artistName == null || (album.getArtist() != null && artistName.equals(album.getArtist().getName())));
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
@@ -0,0 +1,21 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumImportResultDTO {
+    private Integer index;
+    private Status status;
+    private Long id;
+    private String message;
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+        FAILED
+    }
+}
@@ -0,0 +1,15 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumListValidatorDTO {
+    private Long count;
+    private LocalDateTime lastModified;
+}
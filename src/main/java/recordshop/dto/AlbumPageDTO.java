@@ -0,0 +1,15 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumPageDTO {
+    private List<AlbumDTO> albums;
+    private String nextCursor;
+}
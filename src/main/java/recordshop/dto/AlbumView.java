@@ -0,0 +1,26 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AlbumView {
+    private Long id;
+    private String name;
+    private Long artistId;
+    private String artistName;
+    private LocalDateTime artistCreatedAt;
+    private LocalDateTime artistModifiedAt;
+    private String genre;
+    private String coverArtUrl;
+    private Integer releaseYear;
+    private Integer stockQuantity;
+    private LocalDateTime createdAt;
+    private LocalDateTime modifiedAt;
+    private Long version;
+}
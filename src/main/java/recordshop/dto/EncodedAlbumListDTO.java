@@ -0,0 +1,14 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EncodedAlbumListDTO {
+    private byte[] body;
+    private boolean gzipped;
+    private String nextCursor;
+}
@@ -0,0 +1,14 @@
+package recordshop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetCountDTO<T> {
+    private T value;
+    private Long count;
+    private Long stockQuantity;
+}
@@ -0,0 +1,13 @@
+package recordshop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import recordshop.dto.AlbumDTO;
+
+@Data
+@AllArgsConstructor
+public class AlbumChangedEvent {
+    private Long albumId;
+    private AlbumDTO previous;
+    private AlbumDTO current;
+}
@@ -0,0 +1,12 @@
+package recordshop.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Set;
+
+@Data
+@AllArgsConstructor
+public class HotStockFlushedEvent {
+    private Set<Long> albumIds;
+}
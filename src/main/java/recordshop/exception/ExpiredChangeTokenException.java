@@ -0,0 +1,7 @@
+package recordshop.exception;
+
+public class ExpiredChangeTokenException extends RuntimeException {
+    public ExpiredChangeTokenException(String message) {
+        super(message);
+    }
+}
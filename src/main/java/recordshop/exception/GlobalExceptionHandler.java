@@ -1,5 +1,8 @@
 package recordshop.exception;
 
+import jakarta.persistence.OptimisticLockException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -18,6 +21,44 @@ public class GlobalExceptionHandler {
         return new ResponseEntity<>(new ErrorResponse(400, e.getMessage()), HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler
+    public ResponseEntity<Object> handleInvalidQueryParameterException(InvalidQueryParameterException e) {
+        return new ResponseEntity<>(new ErrorResponse(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleMalformedRequestBodyException(MalformedRequestBodyException e) {
+        return new ResponseEntity<>(new ErrorResponse(400, e.getMessage()), HttpStatus.BAD_REQUEST);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleInsufficientStockException(InsufficientStockException e) {
+        return new ResponseEntity<>(new ErrorResponse(409, e.getMessage()), HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleExpiredChangeTokenException(ExpiredChangeTokenException e) {
+        return new ResponseEntity<>(new ErrorResponse(410, e.getMessage()), HttpStatus.GONE);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handlePreconditionFailedException(PreconditionFailedException e) {
+        return new ResponseEntity<>(new ErrorResponse(412, e.getMessage()), HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler({OptimisticLockingFailureException.class, OptimisticLockException.class})
+    public ResponseEntity<Object> handleOptimisticLockingFailureException(RuntimeException e) {
+        return new ResponseEntity<>(new ErrorResponse(409, "Album was modified concurrently, reload it and try again"),
+                HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler
+    public ResponseEntity<Object> handleServerBusyException(ServerBusyException e) {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(503, e.getMessage()));
+    }
+
     @ExceptionHandler
     public ResponseEntity<Object> handleUnavailableRouteException(UnavailableRouteException e) {
         return new ResponseEntity<>(new ErrorResponse(404, e.getMessage()), HttpStatus.NOT_FOUND);
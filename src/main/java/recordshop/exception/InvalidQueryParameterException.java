@@ -0,0 +1,7 @@
+package recordshop.exception;
+
+public class InvalidQueryParameterException extends RuntimeException {
+    public InvalidQueryParameterException(String message) {
+        super(message);
+    }
+}
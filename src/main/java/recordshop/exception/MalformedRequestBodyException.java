@@ -0,0 +1,7 @@
+package recordshop.exception;
+
+public class MalformedRequestBodyException extends RuntimeException {
+    public MalformedRequestBodyException(String message) {
+        super(message);
+    }
+}
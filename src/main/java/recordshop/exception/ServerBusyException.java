@@ -0,0 +1,7 @@
+package recordshop.exception;
+
+public class ServerBusyException extends RuntimeException {
+    public ServerBusyException(String message) {
+        super(message);
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -14,11 +15,18 @@ import java.time.LocalDateTime;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "albums")
+@Table(name = "albums", indexes = {
+        @Index(name = "idx_albums_genre_id", columnList = "genre, id"),
+        @Index(name = "idx_albums_release_year_id", columnList = "release_year, id"),
+        @Index(name = "idx_albums_artist_id_id", columnList = "artist_id, id"),
+        @Index(name = "idx_albums_genre_release_year", columnList = "genre, release_year"),
+        @Index(name = "idx_albums_artist_id_release_year", columnList = "artist_id, release_year")
+})
 @Entity
 public class Album {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "albums_seq")
+    @SequenceGenerator(name = "albums_seq", sequenceName = "albums_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false)
@@ -50,4 +58,9 @@ public class Album {
     @JsonFormat(shape = JsonFormat.Shape.STRING, pattern = "yyyy-MM-dd'T'HH:mm:ss", timezone = "UTC")
     @UpdateTimestamp
     private LocalDateTime modifiedAt;
+
+    @Version
+    @Column(nullable = false)
+    @ColumnDefault("0")
+    private Long version;
 }
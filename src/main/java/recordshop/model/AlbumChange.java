@@ -0,0 +1,31 @@
+package recordshop.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "album_changes", indexes = {
+        @Index(name = "idx_album_changes_changed_at", columnList = "changed_at")
+})
+@Entity
+public class AlbumChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "album_id", nullable = false)
+    private Long albumId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "change_type", nullable = false, length = 6)
+    private AlbumChangeType type;
+
+    @Column(name = "changed_at", nullable = false)
+    private LocalDateTime changedAt;
+}
@@ -0,0 +1,6 @@
+package recordshop.model;
+
+public enum AlbumChangeType {
+    UPSERT,
+    DELETE
+}
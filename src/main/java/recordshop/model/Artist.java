@@ -19,7 +19,8 @@ import java.util.List;
 @Entity
 public class Artist {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "artists_seq")
+    @SequenceGenerator(name = "artists_seq", sequenceName = "artists_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
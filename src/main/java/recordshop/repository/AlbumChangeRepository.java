@@ -0,0 +1,30 @@
+package recordshop.repository;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import recordshop.model.AlbumChange;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AlbumChangeRepository extends CrudRepository<AlbumChange, Long> {
+    @Query(value = "select localtimestamp", nativeQuery = true)
+    LocalDateTime findDatabaseTime();
+
+    List<AlbumChange> findByIdGreaterThanOrderById(Long id, Limit limit);
+
+    @Query("select max(c.id) from AlbumChange c where c.changedAt <= :changedAt")
+    Long findLastIdChangedBefore(@Param("changedAt") LocalDateTime changedAt);
+
+    @Transactional
+    @Modifying
+    @Query(value = "delete from album_changes where id in (select id from album_changes where changed_at < :changedAt "
+            + "order by id fetch first :limit rows only)", nativeQuery = true)
+    int deleteChangedBefore(@Param("changedAt") LocalDateTime changedAt, @Param("limit") int limit);
+}
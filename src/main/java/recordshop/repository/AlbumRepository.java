@@ -1,14 +1,36 @@
 package recordshop.repository;
 
+import jakarta.persistence.QueryHint;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import recordshop.model.Album;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
 
 @Repository
-public interface AlbumRepository extends CrudRepository<Album, Long> {
+public interface AlbumRepository extends CrudRepository<Album, Long>, AlbumRepositoryCustom {
     List<Album> findAllByGenre(String genre);
     List<Album> findAllByReleaseYear(Integer releaseYear);
     List<Album> findAllByArtistName(String name);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READ_ONLY, value = "true")
+    })
+    @Query("select a from Album a join fetch a.artist order by a.id")
+    Stream<Album> streamAllWithArtist();
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Album a set a.stockQuantity = a.stockQuantity - :quantity, a.modifiedAt = :modifiedAt, "
+            + "a.version = a.version + 1 where a.id = :id and a.stockQuantity >= :quantity")
+    int reserveStock(@Param("id") Long id, @Param("quantity") int quantity, @Param("modifiedAt") LocalDateTime modifiedAt);
 }
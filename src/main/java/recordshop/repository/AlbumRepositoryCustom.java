@@ -0,0 +1,22 @@
+package recordshop.repository;
+
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumView;
+import recordshop.dto.FacetCountDTO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface AlbumRepositoryCustom {
+    List<AlbumView> findViews(AlbumFilter filter, Long afterId, Integer limit);
+    List<AlbumView> findViews(AlbumFilter filter, Set<AlbumField> fields, Long afterId, Integer limit);
+    List<AlbumView> findViewsByIds(Collection<Long> ids);
+    List<AlbumView> findViewsByIds(Collection<Long> ids, Set<AlbumField> fields);
+    AlbumListValidatorDTO findListValidator(AlbumFilter filter);
+    List<FacetCountDTO<String>> countByGenre(AlbumFilter filter);
+    List<FacetCountDTO<Integer>> countByReleaseYear(AlbumFilter filter);
+    List<FacetCountDTO<String>> countByArtist(AlbumFilter filter, Integer limit);
+}
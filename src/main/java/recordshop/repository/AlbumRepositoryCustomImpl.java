@@ -0,0 +1,234 @@
+package recordshop.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CompoundSelection;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.From;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumView;
+import recordshop.dto.FacetCountDTO;
+import recordshop.model.Album;
+import recordshop.model.Artist;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+public class AlbumRepositoryCustomImpl implements AlbumRepositoryCustom {
+
+    private static final Set<AlbumField> ALL_FIELDS = Collections.unmodifiableSet(EnumSet.allOf(AlbumField.class));
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<AlbumView> findViews(AlbumFilter filter, Long afterId, Integer limit) {
+        return findViews(filter, ALL_FIELDS, afterId, limit);
+    }
+
+    @Override
+    public List<AlbumView> findViews(AlbumFilter filter, Set<AlbumField> fields, Long afterId, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AlbumView> query = cb.createQuery(AlbumView.class);
+        Root<Album> album = query.from(Album.class);
+        Join<Album, Artist> artist = joinArtist(album, fields, filter);
+
+        query.select(viewSelection(cb, album, artist, fields));
+
+        List<Predicate> predicates = filterPredicates(cb, album, artist, filter);
+
+        if (afterId != null) {
+            predicates.add(cb.greaterThan(album.get("id"), afterId));
+        }
+
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(album.get("id")));
+
+        TypedQuery<AlbumView> typedQuery = entityManager.createQuery(query);
+
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        return typedQuery.getResultList();
+    }
+
+    @Override
+    public List<AlbumView> findViewsByIds(Collection<Long> ids) {
+        return findViewsByIds(ids, ALL_FIELDS);
+    }
+
+    @Override
+    public List<AlbumView> findViewsByIds(Collection<Long> ids, Set<AlbumField> fields) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<AlbumView> query = cb.createQuery(AlbumView.class);
+        Root<Album> album = query.from(Album.class);
+        Join<Album, Artist> artist = joinArtist(album, fields, null);
+
+        query.select(viewSelection(cb, album, artist, fields));
+        query.where(album.get("id").in(ids));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public AlbumListValidatorDTO findListValidator(AlbumFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Album> album = query.from(Album.class);
+        Join<Album, Artist> artist = album.join("artist");
+
+        Expression<Long> count = cb.count(album);
+        Expression<LocalDateTime> albumModifiedAt = cb.greatest(album.<LocalDateTime>get("modifiedAt"));
+        Expression<LocalDateTime> artistModifiedAt = cb.greatest(artist.<LocalDateTime>get("modifiedAt"));
+
+        query.multiselect(count, albumModifiedAt, artistModifiedAt);
+        query.where(filterPredicates(cb, album, artist, filter).toArray(Predicate[]::new));
+
+        Tuple result = entityManager.createQuery(query).getSingleResult();
+
+        return new AlbumListValidatorDTO(result.get(count), latest(result.get(albumModifiedAt), result.get(artistModifiedAt)));
+    }
+
+    @Override
+    public List<FacetCountDTO<String>> countByGenre(AlbumFilter filter) {
+        return countBy(filter, (album, artist) -> album.get("genre"), true, null);
+    }
+
+    @Override
+    public List<FacetCountDTO<Integer>> countByReleaseYear(AlbumFilter filter) {
+        return countBy(filter, (album, artist) -> album.get("releaseYear"), false, null);
+    }
+
+    @Override
+    public List<FacetCountDTO<String>> countByArtist(AlbumFilter filter, Integer limit) {
+        return countBy(filter, (album, artist) -> artist.get("name"), true, limit);
+    }
+
+    private <T> List<FacetCountDTO<T>> countBy(AlbumFilter filter,
+                                               BiFunction<Root<Album>, Join<Album, Artist>, Expression<T>> facet,
+                                               boolean orderByCount, Integer limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Album> album = query.from(Album.class);
+        Join<Album, Artist> artist = album.join("artist");
+
+        Expression<T> value = facet.apply(album, artist);
+        Expression<Long> count = cb.count(album);
+        Expression<Long> stockQuantity = cb.sumAsLong(album.get("stockQuantity"));
+
+        query.multiselect(value, count, stockQuantity);
+        query.where(filterPredicates(cb, album, artist, filter).toArray(Predicate[]::new));
+        query.groupBy(value);
+        query.orderBy(orderByCount
+                ? List.of(cb.desc(count), cb.asc(value))
+                : List.of(cb.asc(value)));
+
+        TypedQuery<Tuple> typedQuery = entityManager.createQuery(query);
+
+        if (limit != null) {
+            typedQuery.setMaxResults(limit);
+        }
+
+        return typedQuery.getResultList().stream()
+                .map(tuple -> new FacetCountDTO<>(tuple.get(value), tuple.get(count),
+                        Objects.requireNonNullElse(tuple.get(stockQuantity), 0L)))
+                .toList();
+    }
+
+    private static Join<Album, Artist> joinArtist(Root<Album> album, Set<AlbumField> fields, AlbumFilter filter) {
+        boolean filtersByArtist = filter != null && filter.getArtistName() != null;
+
+        if (filtersByArtist || fields.stream().anyMatch(AlbumField::isArtistField)) {
+            return album.join("artist");
+        }
+
+        return null;
+    }
+
+    private static CompoundSelection<AlbumView> viewSelection(CriteriaBuilder cb, Root<Album> album,
+                                                              Join<Album, Artist> artist, Set<AlbumField> fields) {
+        return cb.construct(AlbumView.class,
+                column(cb, fields, AlbumField.ID, album, "id"),
+                column(cb, fields, AlbumField.NAME, album, "name"),
+                column(cb, fields, AlbumField.ARTIST_ID, artist, "id"),
+                column(cb, fields, AlbumField.ARTIST_NAME, artist, "name"),
+                column(cb, fields, AlbumField.ARTIST_CREATED_AT, artist, "createdAt"),
+                column(cb, fields, AlbumField.ARTIST_MODIFIED_AT, artist, "modifiedAt"),
+                column(cb, fields, AlbumField.GENRE, album, "genre"),
+                column(cb, fields, AlbumField.COVER_ART_URL, album, "coverArtUrl"),
+                column(cb, fields, AlbumField.RELEASE_YEAR, album, "releaseYear"),
+                column(cb, fields, AlbumField.STOCK_QUANTITY, album, "stockQuantity"),
+                column(cb, fields, AlbumField.CREATED_AT, album, "createdAt"),
+                column(cb, fields, AlbumField.MODIFIED_AT, album, "modifiedAt"),
+                album.get("version"));
+    }
+
+    private static Expression<?> column(CriteriaBuilder cb, Set<AlbumField> fields, AlbumField field,
+                                        From<?, ?> from, String attribute) {
+        if (fields.contains(field)) {
+            return from.get(attribute);
+        }
+
+        return cb.nullLiteral(field.getType());
+    }
+
+    private static LocalDateTime latest(LocalDateTime first, LocalDateTime second) {
+        if (first == null) {
+            return second;
+        }
+
+        return second == null || first.isAfter(second) ? first : second;
+    }
+
+    static List<Predicate> filterPredicates(CriteriaBuilder cb, Root<Album> album, Join<Album, Artist> artist,
+                                            AlbumFilter filter) {
+        List<Predicate> predicates = new ArrayList<>();
+
+        if (filter == null) {
+            return predicates;
+        }
+
+        if (filter.getGenre() != null) {
+            predicates.add(cb.equal(album.get("genre"), filter.getGenre()));
+        }
+
+        if (filter.getReleaseYear() != null) {
+            predicates.add(cb.equal(album.get("releaseYear"), filter.getReleaseYear()));
+        }
+
+        if (filter.getReleaseYearFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(album.get("releaseYear"), filter.getReleaseYearFrom()));
+        }
+
+        if (filter.getReleaseYearTo() != null) {
+            predicates.add(cb.lessThanOrEqualTo(album.get("releaseYear"), filter.getReleaseYearTo()));
+        }
+
+        if (filter.getArtistName() != null) {
+            predicates.add(cb.equal(artist.get("name"), filter.getArtistName()));
+        }
+
+        return predicates;
+    }
+}
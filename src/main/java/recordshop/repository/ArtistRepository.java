@@ -4,7 +4,12 @@ import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
 import recordshop.model.Artist;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface ArtistRepository extends CrudRepository<Artist, Long> {
     Artist findByName(String name);
+    List<Artist> findAllByNameIn(Collection<String> names);
+    <S extends Artist> S saveAndFlush(S artist);
 }
@@ -0,0 +1,401 @@
+package recordshop.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumView;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.repository.AlbumRepository;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+@Component
+public class AlbumSearchIndex {
+
+    static final int LOAD_BATCH_SIZE = 10_000;
+    static final int MIN_PREFIX_LENGTH = 2;
+    static final int GRAM_LENGTH = 3;
+    static final double EXACT_SCORE = 3.0;
+    static final double PREFIX_SCORE = 2.0;
+    static final double FUZZY_SCORE = 1.0;
+    static final double ARTIST_ONLY_WEIGHT = 0.75;
+
+    private static final int ALBUM_NAME_FIELD = 1;
+    private static final int ARTIST_NAME_FIELD = 2;
+    private static final String GRAM_PADDING = "$".repeat(GRAM_LENGTH - 1);
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern NON_ALPHANUMERIC = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final Comparator<Map.Entry<Long, Double>> RANKING = Map.Entry.<Long, Double>comparingByValue(
+            Comparator.reverseOrder()).thenComparing(Map.Entry.comparingByKey());
+
+    private final AlbumRepository albumRepository;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<String, Set<String>> termsByGram = new HashMap<>();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Set<Long> changedWhileLoading = ConcurrentHashMap.newKeySet();
+    private volatile boolean loading;
+
+    @Autowired
+    public AlbumSearchIndex(AlbumRepository albumRepository) {
+        this.albumRepository = albumRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        loading = true;
+        changedWhileLoading.clear();
+
+        try {
+            Set<Long> loadedIds = new HashSet<>();
+            Long afterId = 0L;
+            List<AlbumView> batch;
+
+            do {
+                batch = albumRepository.findViews(new AlbumFilter(), afterId, LOAD_BATCH_SIZE);
+
+                for (AlbumView album : batch) {
+                    loadedIds.add(album.getId());
+
+                    if (!changedWhileLoading.contains(album.getId())) {
+                        index(album.getId(), album.getName(), album.getArtistName());
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    afterId = batch.getLast().getId();
+                }
+            } while (batch.size() == LOAD_BATCH_SIZE);
+
+            removeUnloaded(loadedIds);
+        } finally {
+            loading = false;
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onAlbumChanged(AlbumChangedEvent event) {
+        if (loading) {
+            changedWhileLoading.add(event.getAlbumId());
+        }
+
+        AlbumDTO current = event.getCurrent();
+
+        if (current == null) {
+            remove(event.getAlbumId());
+        } else {
+            index(current.getId(), current.getName(), current.getArtist() == null ? null : current.getArtist().getName());
+        }
+    }
+
+    public void reindex(Collection<Long> albumIds) {
+        if (loading) {
+            changedWhileLoading.addAll(albumIds);
+        }
+
+        Set<Long> deletedIds = new HashSet<>(albumIds);
+
+        for (AlbumView album : albumRepository.findViewsByIds(albumIds)) {
+            deletedIds.remove(album.getId());
+            index(album.getId(), album.getName(), album.getArtistName());
+        }
+
+        deletedIds.forEach(this::remove);
+    }
+
+    public void index(Long albumId, String albumName, String artistName) {
+        Document document = new Document(tokenSet(albumName), tokenSet(artistName));
+
+        lock.writeLock().lock();
+        try {
+            removeLocked(albumId);
+            documents.put(albumId, document);
+            document.albumTerms().forEach(term -> addPosting(term, albumId, ALBUM_NAME_FIELD));
+            document.artistTerms().forEach(term -> addPosting(term, albumId, ARTIST_NAME_FIELD));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(Long albumId) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(albumId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, int limit) {
+        List<String> tokens = tokenize(query);
+
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+
+        lock.readLock().lock();
+        try {
+            for (int i = 0; i < tokens.size(); i++) {
+                boolean lastToken = i == tokens.size() - 1;
+                scoreToken(tokens.get(i), lastToken).forEach((albumId, score) -> scores.merge(albumId, score, Double::sum));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return topResults(scores, limit);
+    }
+
+    static List<Long> topResults(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Map.Entry<Long, Double>> top = new PriorityQueue<>(limit + 1, RANKING.reversed());
+
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            top.add(entry);
+
+            if (top.size() > limit) {
+                top.poll();
+            }
+        }
+
+        List<Long> results = new ArrayList<>(top.size());
+
+        while (!top.isEmpty()) {
+            results.add(top.poll().getKey());
+        }
+
+        return results.reversed();
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+
+        String folded = COMBINING_MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("")
+                .toLowerCase(Locale.ROOT);
+
+        return Arrays.stream(NON_ALPHANUMERIC.split(folded))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    static boolean withinEditDistance(String source, String target, int maxEdits) {
+        if (Math.abs(source.length() - target.length()) > maxEdits) {
+            return false;
+        }
+
+        int[] previous = new int[target.length() + 1];
+        int[] current = new int[target.length() + 1];
+
+        for (int j = 0; j <= target.length(); j++) {
+            previous[j] = j;
+        }
+
+        for (int i = 1; i <= source.length(); i++) {
+            current[0] = i;
+            int rowMinimum = current[0];
+
+            for (int j = 1; j <= target.length(); j++) {
+                int substitution = previous[j - 1] + (source.charAt(i - 1) == target.charAt(j - 1) ? 0 : 1);
+                current[j] = Math.min(substitution, Math.min(previous[j], current[j - 1]) + 1);
+                rowMinimum = Math.min(rowMinimum, current[j]);
+            }
+
+            if (rowMinimum > maxEdits) {
+                return false;
+            }
+
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+
+        return previous[target.length()] <= maxEdits;
+    }
+
+    static int maxEdits(String token) {
+        if (token.length() >= 8) {
+            return 2;
+        }
+
+        return token.length() >= 4 ? 1 : 0;
+    }
+
+    static Set<String> grams(String term) {
+        String padded = GRAM_PADDING + term + GRAM_PADDING;
+        Set<String> grams = new HashSet<>();
+
+        for (int i = 0; i + GRAM_LENGTH <= padded.length(); i++) {
+            grams.add(padded.substring(i, i + GRAM_LENGTH));
+        }
+
+        return grams;
+    }
+
+    private Map<Long, Double> scoreToken(String token, boolean prefixMatch) {
+        Map<Long, Double> best = new HashMap<>();
+
+        collect(best, postings.get(token), EXACT_SCORE);
+
+        if (prefixMatch && token.length() >= MIN_PREFIX_LENGTH) {
+            for (Map<Long, Integer> postingList : postings.subMap(token, false, token + Character.MAX_VALUE, true).values()) {
+                collect(best, postingList, PREFIX_SCORE);
+            }
+        }
+
+        int maxEdits = maxEdits(token);
+
+        if (maxEdits > 0) {
+            for (String term : fuzzyCandidates(token, maxEdits)) {
+                if (withinEditDistance(token, term, maxEdits)) {
+                    collect(best, postings.get(term), FUZZY_SCORE);
+                }
+            }
+        }
+
+        return best;
+    }
+
+    private List<String> fuzzyCandidates(String token, int maxEdits) {
+        String firstGram = GRAM_PADDING + token.charAt(0);
+        Set<String> grams = grams(token);
+        int minSharedGrams = grams.size() - maxEdits * GRAM_LENGTH;
+        Map<String, Integer> sharedGrams = new HashMap<>();
+
+        if (minSharedGrams > 1) {
+            grams.remove(firstGram);
+            minSharedGrams--;
+        } else {
+            grams = Set.of(firstGram);
+            minSharedGrams = 1;
+        }
+
+        for (String gram : grams) {
+            for (String term : termsByGram.getOrDefault(gramKey(token, gram), Set.of())) {
+                if (Math.abs(term.length() - token.length()) <= maxEdits && !term.equals(token)) {
+                    sharedGrams.merge(term, 1, Integer::sum);
+                }
+            }
+        }
+
+        List<String> candidates = new ArrayList<>();
+
+        for (Map.Entry<String, Integer> shared : sharedGrams.entrySet()) {
+            if (shared.getValue() >= minSharedGrams) {
+                candidates.add(shared.getKey());
+            }
+        }
+
+        return candidates;
+    }
+
+    private void collect(Map<Long, Double> best, Map<Long, Integer> postingList, double score) {
+        if (postingList == null) {
+            return;
+        }
+
+        postingList.forEach((albumId, fields) -> {
+            double weighted = (fields & ALBUM_NAME_FIELD) != 0 ? score : score * ARTIST_ONLY_WEIGHT;
+            best.merge(albumId, weighted, Math::max);
+        });
+    }
+
+    private void addPosting(String term, Long albumId, int field) {
+        postings.computeIfAbsent(term, key -> {
+            grams(key).forEach(gram -> termsByGram.computeIfAbsent(gramKey(key, gram), k -> new HashSet<>()).add(key));
+
+            return new HashMap<>();
+        }).merge(albumId, field, (a, b) -> a | b);
+    }
+
+    private void removeUnloaded(Set<Long> loadedIds) {
+        lock.writeLock().lock();
+        try {
+            for (Long albumId : new ArrayList<>(documents.keySet())) {
+                if (!loadedIds.contains(albumId) && !changedWhileLoading.contains(albumId)) {
+                    removeLocked(albumId);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void removeLocked(Long albumId) {
+        Document document = documents.remove(albumId);
+
+        if (document == null) {
+            return;
+        }
+
+        List<String> terms = new ArrayList<>(document.albumTerms());
+        terms.addAll(document.artistTerms());
+
+        for (String term : terms) {
+            Map<Long, Integer> postingList = postings.get(term);
+
+            if (postingList != null) {
+                postingList.remove(albumId);
+
+                if (postingList.isEmpty()) {
+                    postings.remove(term);
+                    removeTerm(term);
+                }
+            }
+        }
+    }
+
+    private void removeTerm(String term) {
+        for (String gram : grams(term)) {
+            String gramKey = gramKey(term, gram);
+            Set<String> terms = termsByGram.get(gramKey);
+
+            if (terms != null && terms.remove(term) && terms.isEmpty()) {
+                termsByGram.remove(gramKey);
+            }
+        }
+    }
+
+    private static String gramKey(String term, String gram) {
+        return term.charAt(0) + gram;
+    }
+
+    private static Set<String> tokenSet(String text) {
+        return new LinkedHashSet<>(tokenize(text));
+    }
+
+    private record Document(Set<String> albumTerms, Set<String> artistTerms) {
+    }
+}
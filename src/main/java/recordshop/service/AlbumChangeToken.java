@@ -0,0 +1,41 @@
+package recordshop.service;
+
+import recordshop.exception.InvalidQueryParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+
+record AlbumChangeToken(long sequence, LocalDateTime issuedAt) {
+
+    private static final String PREFIX = "seq:";
+    private static final String SEPARATOR = "@";
+
+    String encode() {
+        long issuedAtMillis = issuedAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+        byte[] raw = (PREFIX + sequence + SEPARATOR + issuedAtMillis).getBytes(StandardCharsets.UTF_8);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static AlbumChangeToken decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf(SEPARATOR);
+
+            if (!raw.startsWith(PREFIX) || separator < 0) {
+                throw new IllegalArgumentException(raw);
+            }
+
+            long sequence = Long.parseLong(raw.substring(PREFIX.length(), separator));
+            long issuedAtMillis = Long.parseLong(raw.substring(separator + 1));
+
+            return new AlbumChangeToken(sequence,
+                    LocalDateTime.ofInstant(Instant.ofEpochMilli(issuedAtMillis), ZoneOffset.UTC));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryParameterException(String.format("Invalid change token '%s'", token));
+        }
+    }
+}
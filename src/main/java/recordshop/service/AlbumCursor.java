@@ -0,0 +1,38 @@
+package recordshop.service;
+
+import recordshop.exception.InvalidQueryParameterException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+final class AlbumCursor {
+
+    private static final String PREFIX = "id:";
+
+    private AlbumCursor() {
+    }
+
+    static String encode(Long lastId) {
+        byte[] raw = (PREFIX + lastId).getBytes(StandardCharsets.UTF_8);
+
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    static Long decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+
+            if (!raw.startsWith(PREFIX)) {
+                throw new IllegalArgumentException(raw);
+            }
+
+            return Long.parseLong(raw.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            throw new InvalidQueryParameterException(String.format("Invalid cursor '%s'", cursor));
+        }
+    }
+}
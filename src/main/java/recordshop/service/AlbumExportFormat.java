@@ -0,0 +1,33 @@
+package recordshop.service;
+
+import recordshop.exception.InvalidQueryParameterException;
+
+import java.util.Arrays;
+
+public enum AlbumExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String fileExtension;
+
+    AlbumExportFormat(String contentType, String fileExtension) {
+        this.contentType = contentType;
+        this.fileExtension = fileExtension;
+    }
+
+    public String getContentType() {
+        return contentType;
+    }
+
+    public String getFileExtension() {
+        return fileExtension;
+    }
+
+    public static AlbumExportFormat fromParameter(String format) {
+        return Arrays.stream(values())
+                .filter(value -> value.fileExtension.equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new InvalidQueryParameterException(String.format("Unsupported export format '%s'", format)));
+    }
+}
@@ -0,0 +1,99 @@
+package recordshop.service;
+
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumField;
+import recordshop.dto.ArtistDTO;
+import recordshop.exception.InvalidQueryParameterException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+final class AlbumFields {
+
+    private static final String ARTIST = "artist";
+
+    private AlbumFields() {
+    }
+
+    static Set<AlbumField> parse(String fields) {
+        if (fields == null) {
+            return null;
+        }
+
+        Set<AlbumField> parsed = EnumSet.noneOf(AlbumField.class);
+
+        for (String name : fields.split(",")) {
+            String path = name.strip();
+
+            if (path.equals(ARTIST)) {
+                Arrays.stream(AlbumField.values()).filter(AlbumField::isArtistField).forEach(parsed::add);
+            } else {
+                parsed.add(Arrays.stream(AlbumField.values())
+                        .filter(field -> field.getPath().equals(path))
+                        .findFirst()
+                        .orElseThrow(() -> new InvalidQueryParameterException(String.format("Unknown field '%s'", path))));
+            }
+        }
+
+        return Collections.unmodifiableSet(parsed);
+    }
+
+    static Set<AlbumField> with(Set<AlbumField> fields, AlbumField... required) {
+        Set<AlbumField> selected = fields == null ? EnumSet.allOf(AlbumField.class) : EnumSet.copyOf(fields);
+        selected.addAll(Arrays.asList(required));
+
+        return selected;
+    }
+
+    static Map<String, Object> project(AlbumDTO album, Set<AlbumField> fields) {
+        Map<String, Object> projected = new LinkedHashMap<>();
+        Map<String, Object> artist = null;
+
+        for (AlbumField field : fields) {
+            if (field.isArtistField()) {
+                if (artist == null) {
+                    artist = new LinkedHashMap<>();
+                    projected.put(ARTIST, artist);
+                }
+
+                artist.put(field.getPath().substring(AlbumField.ARTIST_PREFIX.length()), value(album.getArtist(), field));
+            } else {
+                projected.put(field.getPath(), value(album, field));
+            }
+        }
+
+        return projected;
+    }
+
+    private static Object value(AlbumDTO album, AlbumField field) {
+        return switch (field) {
+            case ID -> album.getId();
+            case NAME -> album.getName();
+            case GENRE -> album.getGenre();
+            case COVER_ART_URL -> album.getCoverArtUrl();
+            case RELEASE_YEAR -> album.getReleaseYear();
+            case STOCK_QUANTITY -> album.getStockQuantity();
+            case CREATED_AT -> album.getCreatedAt();
+            case MODIFIED_AT -> album.getModifiedAt();
+            default -> throw new IllegalArgumentException(field.name());
+        };
+    }
+
+    private static Object value(ArtistDTO artist, AlbumField field) {
+        if (artist == null) {
+            return null;
+        }
+
+        return switch (field) {
+            case ARTIST_ID -> artist.getId();
+            case ARTIST_NAME -> artist.getName();
+            case ARTIST_CREATED_AT -> artist.getCreatedAt();
+            case ARTIST_MODIFIED_AT -> artist.getModifiedAt();
+            default -> throw new IllegalArgumentException(field.name());
+        };
+    }
+}
@@ -1,13 +1,35 @@
 package recordshop.service;
 
+import org.springframework.http.MediaType;
+import recordshop.dto.AlbumChangesDTO;
 import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFacetsDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumImportResultDTO;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+import recordshop.dto.StockReservationDTO;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface AlbumService {
-    List<AlbumDTO> getAllAlbums(String genre, Integer releaseYear, String artistName);
+    EncodedAlbumListDTO getEncodedAlbums(AlbumFilter filter, String fields, Integer limit, String after, MediaType mediaType);
+    AlbumChangesDTO getAlbumChanges(String since, Integer limit);
+    AlbumListValidatorDTO getAlbumsValidator(AlbumFilter filter, String fields, Integer limit, String after);
+    AlbumFacetsDTO getAlbumFacets(AlbumFilter filter);
+    List<AlbumDTO> searchAlbums(String query, Integer limit);
     AlbumDTO getAlbumById(Long id);
+    AlbumDTO getAlbumById(Long id, String fields);
+    byte[] getAlbumBody(AlbumDTO album, String fields, MediaType mediaType);
     AlbumDTO addAlbum(AlbumDTO albumDTO);
-    AlbumDTO updateAlbumById(Long id, AlbumDTO albumDTO);
-    void deleteAlbumById(Long id);
+    AlbumDTO updateAlbumById(Long id, AlbumDTO albumDTO, Predicate<AlbumDTO> precondition);
+    void deleteAlbumById(Long id, Predicate<AlbumDTO> precondition);
+    AlbumDTO reserveAlbum(Long id, Integer quantity);
+    List<AlbumDTO> reserveAlbums(List<StockReservationDTO> reservations);
+    List<AlbumImportResultDTO> importAlbums(Iterator<AlbumDTO> albumDTOs);
+    void exportAlbums(AlbumExportFormat format, OutputStream outputStream) throws IOException;
 }
@@ -1,46 +1,392 @@
 package recordshop.service;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonFactoryBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import io.micrometer.core.annotation.Timed;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import recordshop.cache.AlbumBodyCache;
+import recordshop.cache.AlbumQueryCache;
+import recordshop.cache.AlbumQueryKey;
+import recordshop.cache.SingleFlight;
+import recordshop.config.ChangeFeedProperties;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumChangesDTO;
 import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFacetsDTO;
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumImportResultDTO;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumPageDTO;
+import recordshop.dto.AlbumView;
 import recordshop.dto.ArtistDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+import recordshop.dto.FacetCountDTO;
+import recordshop.dto.StockReservationDTO;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.event.HotStockFlushedEvent;
+import recordshop.exception.ExpiredChangeTokenException;
+import recordshop.exception.InsufficientStockException;
+import recordshop.exception.InvalidQueryParameterException;
 import recordshop.exception.ItemNotFoundException;
+import recordshop.exception.MalformedRequestBodyException;
 import recordshop.exception.MissingFieldException;
+import recordshop.exception.PreconditionFailedException;
 import recordshop.model.Album;
+import recordshop.model.AlbumChange;
+import recordshop.model.AlbumChangeType;
 import recordshop.model.Artist;
+import recordshop.repository.AlbumChangeRepository;
 import recordshop.repository.AlbumRepository;
-import recordshop.repository.ArtistRepository;
-
+import recordshop.search.AlbumSearchIndex;
+import recordshop.stock.HotStockRegistry;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+@Slf4j
 @Service
+@Timed("recordshop.albums.service")
 public class AlbumServiceImpl implements AlbumService {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 500;
+    static final int DEFAULT_IMPORT_CHUNK_SIZE = 500;
+    static final String IMPORT_FAILED_MESSAGE = "Album could not be saved, no album in its chunk was imported";
+    static final int DEFAULT_SEARCH_SIZE = 20;
+    static final int MAX_SEARCH_SIZE = 100;
+    static final int MAX_ARTIST_FACETS = 100;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactoryBuilder()
+            .rootValueSeparator((String) null)
+            .build();
+    private static final CsvMapper CSV_MAPPER = new CsvMapper();
+    private static final CsvSchema EXPORT_CSV_SCHEMA = CsvSchema.builder()
+            .addColumn("id")
+            .addColumn("name")
+            .addColumn("artistId")
+            .addColumn("artistName")
+            .addColumn("genre")
+            .addColumn("coverArtUrl")
+            .addColumn("releaseYear")
+            .addColumn("stockQuantity")
+            .addColumn("createdAt")
+            .addColumn("modifiedAt")
+            .setUseHeader(true)
+            .build();
+
     @Autowired
     AlbumRepository albumRepository;
 
     @Autowired
-    ArtistRepository artistRepository;
+    ArtistResolver artistResolver;
+
+    @Autowired
+    AlbumQueryCache albumQueryCache;
+
+    @Autowired
+    AlbumBodyCache albumBodyCache;
+
+    @Autowired
+    SingleFlight<Long, AlbumDTO> albumLoads;
+
+    @Autowired
+    AlbumSearchIndex albumSearchIndex;
+
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    CacheManager cacheManager;
+
+    @Autowired
+    HotStockRegistry hotStockRegistry;
+
+    @Autowired
+    TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    EntityManager entityManager;
+
+    @Value("${recordshop.import.chunk-size:" + DEFAULT_IMPORT_CHUNK_SIZE + "}")
+    int importChunkSize = DEFAULT_IMPORT_CHUNK_SIZE;
+
+    @Value("${server.compression.min-response-size:2KB}")
+    DataSize compressionMinResponseSize = DataSize.ofKilobytes(2);
+
+    @Autowired
+    JacksonFormats jacksonFormats;
+
+    @Autowired
+    AlbumChangeRepository albumChangeRepository;
+
+    @Autowired
+    ChangeFeedProperties changeFeedProperties;
+
+    private List<AlbumDTO> loadAlbums(AlbumQueryKey key) {
+        return findViews(key, null, null).stream()
+                .map(this::mapToDTO)
+                .toList();
+    }
+
+    private AlbumQueryKey pageKey(AlbumFilter filter, Integer limit, String after) {
+        int pageSize = pageSize(limit);
+
+        validateFilter(filter);
+
+        return AlbumQueryKey.of(filter, pageSize, AlbumCursor.decode(after));
+    }
+
+    private static int pageSize(Integer limit) {
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+
+        if (pageSize < 1 || pageSize > MAX_PAGE_SIZE) {
+            throw new InvalidQueryParameterException(String.format("Limit must be between 1 and %d", MAX_PAGE_SIZE));
+        }
+
+        return pageSize;
+    }
+
+    private AlbumPageDTO loadAlbumsPage(AlbumQueryKey key) {
+        int pageSize = key.getLimit();
+        List<AlbumView> albums = findViews(key, key.getAfterId(), pageSize + 1);
+
+        boolean hasNext = albums.size() > pageSize;
+        List<AlbumDTO> page = albums.stream()
+                .limit(pageSize)
+                .map(this::mapToDTO)
+                .toList();
+        String nextCursor = hasNext ? AlbumCursor.encode(page.getLast().getId()) : null;
+
+        return new AlbumPageDTO(page, nextCursor);
+    }
+
+    private List<AlbumView> findViews(AlbumQueryKey key, Long afterId, Integer limit) {
+        if (key.getFields() == null) {
+            return albumRepository.findViews(key.getFilter(), afterId, limit);
+        }
+
+        return albumRepository.findViews(key.getFilter(), AlbumFields.with(key.getFields(), AlbumField.ID), afterId, limit);
+    }
 
     @Override
-    public List<AlbumDTO> getAllAlbums(String genre, Integer releaseYear, String artistName) {
-        List<Album> albums = new ArrayList<>();
-
-        if (genre != null) {
-            albums.addAll(albumRepository.findAllByGenre(genre));
-        } else if (releaseYear != null) {
-            albums.addAll(albumRepository.findAllByReleaseYear(releaseYear));
-        } else if (artistName != null) {
-            albums.addAll(albumRepository.findAllByArtistName(artistName));
-        } else {
-            albumRepository.findAll().forEach(albums::add);
+    public EncodedAlbumListDTO getEncodedAlbums(AlbumFilter filter, String fields, Integer limit, String after,
+                                                MediaType mediaType) {
+        Set<AlbumField> selectedFields = AlbumFields.parse(fields);
+
+        if (limit == null && after == null) {
+            validateFilter(filter);
+            AlbumQueryKey key = AlbumQueryKey.encoded(filter, selectedFields, null, null, mediaType);
+
+            return albumQueryCache.get(key, () -> encode(loadAlbums(key), selectedFields, null, mediaType));
+        }
+
+        AlbumQueryKey pageKey = pageKey(filter, limit, after);
+        AlbumQueryKey key = AlbumQueryKey.encoded(pageKey.getFilter(), selectedFields, pageKey.getLimit(),
+                pageKey.getAfterId(), mediaType);
+
+        return albumQueryCache.get(key, () -> {
+            AlbumPageDTO page = loadAlbumsPage(key);
+
+            return encode(page.getAlbums(), selectedFields, page.getNextCursor(), mediaType);
+        });
+    }
+
+    private EncodedAlbumListDTO encode(List<AlbumDTO> albums, Set<AlbumField> fields, String nextCursor,
+                                       MediaType mediaType) {
+        try {
+            byte[] body = jacksonFormats.mapper(mediaType).writeValueAsBytes(fields == null
+                    ? albums
+                    : albums.stream().map(album -> AlbumFields.project(album, fields)).toList());
+
+            if (body.length < compressionMinResponseSize.toBytes()) {
+                return new EncodedAlbumListDTO(body, false, nextCursor);
+            }
+
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+
+            try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+                gzip.write(body);
+            }
+
+            return new EncodedAlbumListDTO(compressed.toByteArray(), true, nextCursor);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public AlbumChangesDTO getAlbumChanges(String since, Integer limit) {
+        int pageSize = pageSize(limit);
+        LocalDateTime now = albumChangeRepository.findDatabaseTime();
+        LocalDateTime settledBefore = now.minus(changeFeedProperties.getSettleTime());
+
+        if (since == null || since.isBlank()) {
+            Long lastId = albumChangeRepository.findLastIdChangedBefore(settledBefore);
+            String nextToken = new AlbumChangeToken(lastId == null ? 0L : lastId, now).encode();
+
+            return new AlbumChangesDTO(List.of(), List.of(), nextToken, false);
+        }
+
+        AlbumChangeToken token = AlbumChangeToken.decode(since);
+
+        if (token.issuedAt().isBefore(now.minus(changeFeedProperties.getRetention()))) {
+            throw new ExpiredChangeTokenException("Change token has expired, reload the album list for a new token");
+        }
+
+        List<AlbumChange> changes = albumChangeRepository.findByIdGreaterThanOrderById(token.sequence(),
+                Limit.of(pageSize + 1));
+        List<AlbumChange> settledChanges = changes.stream()
+                .limit(pageSize)
+                .takeWhile(change -> !change.getChangedAt().isAfter(settledBefore))
+                .toList();
+        boolean hasMore = settledChanges.size() == pageSize && changes.size() > pageSize;
+
+        Map<Long, AlbumChangeType> latestChanges = new LinkedHashMap<>();
+
+        for (AlbumChange change : settledChanges) {
+            latestChanges.remove(change.getAlbumId());
+            latestChanges.put(change.getAlbumId(), change.getType());
+        }
+
+        List<Long> upsertedIds = latestChanges.entrySet().stream()
+                .filter(entry -> entry.getValue() == AlbumChangeType.UPSERT)
+                .map(Map.Entry::getKey)
+                .toList();
+        Map<Long, AlbumDTO> albumsById = upsertedIds.isEmpty()
+                ? Map.of()
+                : albumRepository.findViewsByIds(upsertedIds).stream()
+                        .map(this::mapToDTO)
+                        .collect(Collectors.toMap(AlbumDTO::getId, Function.identity()));
+
+        List<AlbumDTO> upserted = new ArrayList<>();
+        List<Long> deleted = new ArrayList<>();
+
+        latestChanges.forEach((albumId, type) -> {
+            AlbumDTO album = albumsById.get(albumId);
+
+            if (album == null) {
+                deleted.add(albumId);
+            } else {
+                upserted.add(album);
+            }
+        });
+
+        long lastId = settledChanges.isEmpty() ? token.sequence() : settledChanges.getLast().getId();
+
+        return new AlbumChangesDTO(upserted, deleted, new AlbumChangeToken(lastId, now).encode(), hasMore);
+    }
+
+    @Override
+    public AlbumListValidatorDTO getAlbumsValidator(AlbumFilter filter, String fields, Integer limit, String after) {
+        AlbumFields.parse(fields);
+
+        if (limit != null || after != null) {
+            pageSize(limit);
+            AlbumCursor.decode(after);
         }
 
-        return albums.stream()
+        validateFilter(filter);
+        AlbumQueryKey key = AlbumQueryKey.validator(filter);
+
+        return albumQueryCache.get(key, () -> albumRepository.findListValidator(key.getFilter()));
+    }
+
+    @Override
+    public AlbumFacetsDTO getAlbumFacets(AlbumFilter filter) {
+        validateFilter(filter);
+        AlbumQueryKey key = AlbumQueryKey.facets(filter);
+
+        return albumQueryCache.get(key, () -> loadAlbumFacets(key));
+    }
+
+    private AlbumFacetsDTO loadAlbumFacets(AlbumQueryKey key) {
+        List<FacetCountDTO<Integer>> releaseYears = albumRepository.countByReleaseYear(key.getFilter());
+
+        return new AlbumFacetsDTO(
+                albumRepository.countByGenre(key.getFilter()),
+                releaseYears,
+                toDecades(releaseYears),
+                albumRepository.countByArtist(key.getFilter(), MAX_ARTIST_FACETS));
+    }
+
+    private List<FacetCountDTO<Integer>> toDecades(List<FacetCountDTO<Integer>> releaseYears) {
+        Map<Integer, FacetCountDTO<Integer>> decades = new TreeMap<>();
+
+        for (FacetCountDTO<Integer> releaseYear : releaseYears) {
+            if (releaseYear.getValue() == null) {
+                continue;
+            }
+
+            int decade = Math.floorDiv(releaseYear.getValue(), 10) * 10;
+            FacetCountDTO<Integer> bucket = decades.computeIfAbsent(decade, value -> new FacetCountDTO<>(value, 0L, 0L));
+            bucket.setCount(bucket.getCount() + releaseYear.getCount());
+            bucket.setStockQuantity(bucket.getStockQuantity() + releaseYear.getStockQuantity());
+        }
+
+        return List.copyOf(decades.values());
+    }
+
+    @Override
+    public List<AlbumDTO> searchAlbums(String query, Integer limit) {
+        if (query == null || query.isBlank()) {
+            throw new InvalidQueryParameterException("Search query must not be blank");
+        }
+
+        int size = limit == null ? DEFAULT_SEARCH_SIZE : limit;
+
+        if (size < 1 || size > MAX_SEARCH_SIZE) {
+            throw new InvalidQueryParameterException(String.format("Limit must be between 1 and %d", MAX_SEARCH_SIZE));
+        }
+
+        List<Long> rankedIds = albumSearchIndex.search(query, size);
+        Map<Long, AlbumView> albumsById = albumRepository.findViewsByIds(rankedIds).stream()
+                .collect(Collectors.toMap(AlbumView::getId, Function.identity()));
+
+        return rankedIds.stream()
+                .map(albumsById::get)
+                .filter(Objects::nonNull)
                 .map(this::mapToDTO)
                 .toList();
     }
@@ -48,10 +394,40 @@ public class AlbumServiceImpl implements AlbumService {
     @Override
     @Cacheable(cacheNames = "albums", key = "#id")
     public AlbumDTO getAlbumById(Long id) {
-        Album foundAlbum = albumRepository.findById(id)
+        return albumLoads.load(id, () -> {
+            Album foundAlbum = albumRepository.findById(id)
+                    .orElseThrow(() -> new ItemNotFoundException(String.format("Album with id '%s' could not be found", id)));
+
+            return mapToDTO(foundAlbum);
+        });
+    }
+
+    @Override
+    public AlbumDTO getAlbumById(Long id, String fields) {
+        Set<AlbumField> selectedFields = AlbumFields.with(AlbumFields.parse(fields),
+                AlbumField.ID, AlbumField.MODIFIED_AT, AlbumField.ARTIST_MODIFIED_AT);
+        Cache albumsCache = cacheManager.getCache("albums");
+        AlbumDTO cachedAlbum = albumsCache == null ? null : albumsCache.get(id, AlbumDTO.class);
+
+        if (cachedAlbum != null) {
+            return cachedAlbum;
+        }
+
+        return albumRepository.findViewsByIds(List.of(id), selectedFields).stream()
+                .findFirst()
+                .map(this::mapToDTO)
                 .orElseThrow(() -> new ItemNotFoundException(String.format("Album with id '%s' could not be found", id)));
+    }
+
+    @Override
+    public byte[] getAlbumBody(AlbumDTO album, String fields, MediaType mediaType) {
+        Set<AlbumField> selectedFields = AlbumFields.parse(fields);
 
-        return mapToDTO(foundAlbum);
+        if (selectedFields == null) {
+            return albumBodyCache.get(album, mediaType);
+        }
+
+        return albumBodyCache.encode(AlbumFields.project(album, selectedFields), mediaType);
     }
 
     @Override
@@ -62,25 +438,57 @@ public class AlbumServiceImpl implements AlbumService {
             throw new MissingFieldException("Missing field(s) in request body");
         }
 
-        Artist artist = artistRepository.findByName(albumDTO.getArtist().getName());
+        String artistName = albumDTO.getArtist().getName();
+        boolean artistExists = artistResolver.find(artistName) != null;
 
-        if (artist == null) {
-            artist = artistRepository.save(mapToEntity(albumDTO.getArtist()));
+        try {
+            return transactionTemplate.execute(status -> insertAlbum(albumDTO));
+        } catch (DataIntegrityViolationException e) {
+            if (artistExists || artistResolver.find(artistName) == null) {
+                throw e;
+            }
+
+            return transactionTemplate.execute(status -> insertAlbum(albumDTO));
         }
+    }
+
+    private AlbumDTO insertAlbum(AlbumDTO albumDTO) {
+        ArtistDTO artistDTO = artistResolver.findOrCreate(albumDTO.getArtist().getName());
 
         Album album = mapToEntity(albumDTO);
-        album.setArtist(artist);
+        album.setArtist(mapToEntity(artistDTO));
 
         Album savedAlbum = albumRepository.save(album);
+        entityManager.flush();
+        AlbumDTO savedAlbumDTO = mapToDTO(savedAlbum);
+
+        eventPublisher.publishEvent(new AlbumChangedEvent(savedAlbumDTO.getId(), null, savedAlbumDTO));
 
-        return mapToDTO(savedAlbum);
+        return savedAlbumDTO;
     }
 
     @Override
     @CachePut(cacheNames = "albums", key = "#id")
-    public AlbumDTO updateAlbumById(Long id, AlbumDTO albumDTO) {
+    public AlbumDTO updateAlbumById(Long id, AlbumDTO albumDTO, Predicate<AlbumDTO> precondition) {
+        if (hotStockRegistry.isEnabled()) {
+            return hotStockRegistry.withoutHotStock(id, () -> updateAlbum(id, albumDTO, precondition));
+        }
+
+        return updateAlbum(id, albumDTO, precondition);
+    }
+
+    private AlbumDTO updateAlbum(Long id, AlbumDTO albumDTO, Predicate<AlbumDTO> precondition) {
+        return transactionTemplate.execute(status -> updateFoundAlbum(id, albumDTO, precondition));
+    }
+
+    private AlbumDTO updateFoundAlbum(Long id, AlbumDTO albumDTO, Predicate<AlbumDTO> precondition) {
         Album foundAlbum = albumRepository.findById(id)
                 .orElseThrow(() -> new ItemNotFoundException(String.format("Album with id '%s' could not be found", id)));
+        AlbumDTO previousAlbumDTO = mapToDTO(foundAlbum);
+
+        if (!precondition.test(previousAlbumDTO)) {
+            throw new PreconditionFailedException(String.format("Album with id '%s' has been modified", id));
+        }
 
         boolean hasValidFields = requestBodyHasValidFields(albumDTO);
 
@@ -88,14 +496,14 @@ public class AlbumServiceImpl implements AlbumService {
             throw new MissingFieldException("Missing field(s) in request body");
         }
 
-        Artist artist = artistRepository.findByName(albumDTO.getArtist().getName());
+        ArtistDTO artistDTO = artistResolver.find(albumDTO.getArtist().getName());
 
-        if (artist == null) {
+        if (artistDTO == null) {
             throw new ItemNotFoundException(String.format("Artist with id '%s' could not be found", id));
         }
 
         foundAlbum.setName(albumDTO.getName());
-        foundAlbum.setArtist(artist);
+        foundAlbum.setArtist(mapToEntity(artistDTO));
         foundAlbum.setGenre(albumDTO.getGenre());
 
         if (albumDTO.getCoverArtUrl() != null) {
@@ -106,17 +514,338 @@ public class AlbumServiceImpl implements AlbumService {
         foundAlbum.setStockQuantity(albumDTO.getStockQuantity());
 
         Album updatedAlbum = albumRepository.save(foundAlbum);
+        entityManager.flush();
+        AlbumDTO updatedAlbumDTO = mapToDTO(updatedAlbum);
+
+        eventPublisher.publishEvent(new AlbumChangedEvent(id, previousAlbumDTO, updatedAlbumDTO));
 
-        return mapToDTO(updatedAlbum);
+        return updatedAlbumDTO;
     }
 
     @Override
     @CacheEvict(cacheNames = "albums", key = "#id")
-    public void deleteAlbumById(Long id) {
-        albumRepository.findById(id)
-                .orElseThrow(() -> new ItemNotFoundException(String.format("Album with id '%s' could not be found", id)));
+    public void deleteAlbumById(Long id, Predicate<AlbumDTO> precondition) {
+        if (hotStockRegistry.isEnabled()) {
+            hotStockRegistry.withoutHotStock(id, () -> {
+                deleteAlbum(id, precondition);
+                return null;
+            });
+        } else {
+            deleteAlbum(id, precondition);
+        }
+    }
+
+    private void deleteAlbum(Long id, Predicate<AlbumDTO> precondition) {
+        transactionTemplate.execute(status -> {
+            Album foundAlbum = albumRepository.findById(id)
+                    .orElseThrow(() -> new ItemNotFoundException(String.format("Album with id '%s' could not be found", id)));
+            AlbumDTO foundAlbumDTO = mapToDTO(foundAlbum);
+
+            if (!precondition.test(foundAlbumDTO)) {
+                throw new PreconditionFailedException(String.format("Album with id '%s' has been modified", id));
+            }
+
+            albumRepository.delete(foundAlbum);
+
+            eventPublisher.publishEvent(new AlbumChangedEvent(id, foundAlbumDTO, null));
+
+            return null;
+        });
+    }
+
+    @Override
+    public AlbumDTO reserveAlbum(Long id, Integer quantity) {
+        return reserveAlbums(List.of(new StockReservationDTO(id, quantity))).getFirst();
+    }
+
+    @Override
+    public List<AlbumDTO> reserveAlbums(List<StockReservationDTO> reservations) {
+        if (reservations == null || reservations.isEmpty()) {
+            throw new MissingFieldException("Missing field(s) in request body");
+        }
+
+        Map<Long, Integer> quantitiesById = new TreeMap<>();
+
+        for (StockReservationDTO reservation : reservations) {
+            if (reservation == null || reservation.getAlbumId() == null || reservation.getQuantity() == null) {
+                throw new MissingFieldException("Missing field(s) in request body");
+            }
+
+            if (reservation.getQuantity() < 1) {
+                throw new InvalidQueryParameterException("Quantity must be at least 1");
+            }
+
+            quantitiesById.merge(reservation.getAlbumId(), reservation.getQuantity(), Integer::sum);
+        }
+
+        if (!hotStockRegistry.isEnabled()) {
+            return reserveColdStock(quantitiesById);
+        }
+
+        List<AlbumDTO> reservedAlbums = new ArrayList<>();
+        Map<Long, Long> hotStock = hotStockRegistry.reserve(quantitiesById,
+                coldQuantities -> reservedAlbums.addAll(reserveColdStock(coldQuantities)));
+
+        reservedAlbums.addAll(withStock(hotStock));
+        reservedAlbums.sort(Comparator.comparing(AlbumDTO::getId));
+
+        return reservedAlbums;
+    }
+
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void onHotStockFlushed(HotStockFlushedEvent event) {
+        Cache albumsCache = cacheManager.getCache("albums");
+
+        for (AlbumView albumView : albumRepository.findViewsByIds(event.getAlbumIds())) {
+            AlbumDTO flushedAlbum = mapToDTO(albumView);
+
+            if (albumsCache != null) {
+                albumsCache.put(flushedAlbum.getId(), flushedAlbum);
+            }
+
+            eventPublisher.publishEvent(new AlbumChangedEvent(flushedAlbum.getId(), flushedAlbum, flushedAlbum));
+        }
+    }
+
+    private List<AlbumDTO> reserveColdStock(Map<Long, Integer> quantitiesById) {
+        List<AlbumDTO> reservedAlbums = transactionTemplate.execute(status -> reserveStock(quantitiesById));
+        Cache albumsCache = cacheManager.getCache("albums");
+
+        if (albumsCache != null) {
+            reservedAlbums.forEach(reservedAlbum -> albumsCache.put(reservedAlbum.getId(), reservedAlbum));
+        }
+
+        return reservedAlbums;
+    }
+
+    private List<AlbumDTO> withStock(Map<Long, Long> stockById) {
+        if (stockById.isEmpty()) {
+            return List.of();
+        }
 
-        albumRepository.deleteById(id);
+        Cache albumsCache = cacheManager.getCache("albums");
+        Map<Long, AlbumDTO> albumsById = new HashMap<>();
+        List<Long> uncachedIds = new ArrayList<>();
+
+        for (Long id : stockById.keySet()) {
+            AlbumDTO cachedAlbum = albumsCache == null ? null : albumsCache.get(id, AlbumDTO.class);
+
+            if (cachedAlbum == null) {
+                uncachedIds.add(id);
+            } else {
+                albumsById.put(id, cachedAlbum);
+            }
+        }
+
+        for (AlbumView albumView : albumRepository.findViewsByIds(uncachedIds)) {
+            AlbumDTO loadedAlbum = mapToDTO(albumView);
+            albumsById.put(loadedAlbum.getId(), loadedAlbum);
+
+            if (albumsCache != null) {
+                albumsCache.put(loadedAlbum.getId(), loadedAlbum);
+            }
+        }
+
+        return stockById.entrySet().stream()
+                .filter(entry -> albumsById.containsKey(entry.getKey()))
+                .map(entry -> {
+                    AlbumDTO album = albumsById.get(entry.getKey());
+
+                    return new AlbumDTO(album.getId(),
+                            album.getName(),
+                            album.getArtist(),
+                            album.getGenre(),
+                            album.getCoverArtUrl(),
+                            album.getReleaseYear(),
+                            Math.toIntExact(entry.getValue()),
+                            album.getCreatedAt(),
+                            album.getModifiedAt(),
+                            album.getVersion());
+                })
+                .toList();
+    }
+
+    private List<AlbumDTO> reserveStock(Map<Long, Integer> quantitiesById) {
+        LocalDateTime reservedAt = LocalDateTime.now();
+
+        quantitiesById.forEach((id, quantity) -> {
+            if (albumRepository.reserveStock(id, quantity, reservedAt) == 0) {
+                if (!albumRepository.existsById(id)) {
+                    throw new ItemNotFoundException(String.format("Album with id '%s' could not be found", id));
+                }
+
+                throw new InsufficientStockException(
+                        String.format("Album with id '%s' has fewer than %d item(s) in stock", id, quantity));
+            }
+        });
+
+        List<AlbumDTO> reservedAlbums = albumRepository.findViewsByIds(quantitiesById.keySet()).stream()
+                .sorted(Comparator.comparing(AlbumView::getId))
+                .map(this::mapToDTO)
+                .toList();
+
+        reservedAlbums.forEach(reservedAlbum -> eventPublisher.publishEvent(
+                new AlbumChangedEvent(reservedAlbum.getId(), reservedAlbum, reservedAlbum)));
+
+        return reservedAlbums;
+    }
+
+    @Override
+    public List<AlbumImportResultDTO> importAlbums(Iterator<AlbumDTO> albumDTOs) {
+        List<AlbumImportResultDTO> results = new ArrayList<>();
+        List<AlbumDTO> chunk = new ArrayList<>(importChunkSize);
+        AlbumImportResultDTO unreadable = null;
+        int index = 0;
+        int chunkStart = 0;
+
+        try {
+            while (albumDTOs.hasNext()) {
+                chunk.add(albumDTOs.next());
+                index++;
+
+                if (chunk.size() == importChunkSize) {
+                    results.addAll(importChunk(chunk, chunkStart));
+                    chunk.clear();
+                    chunkStart = index;
+                }
+            }
+        } catch (MalformedRequestBodyException e) {
+            unreadable = new AlbumImportResultDTO(index, AlbumImportResultDTO.Status.REJECTED, null,
+                    "Malformed album in request body, the albums after it were not read");
+        }
+
+        if (!chunk.isEmpty()) {
+            results.addAll(importChunk(chunk, chunkStart));
+        }
+
+        if (unreadable != null) {
+            results.add(unreadable);
+        }
+
+        return results;
+    }
+
+    private List<AlbumImportResultDTO> importChunk(List<AlbumDTO> chunk, int chunkStart) {
+        List<AlbumImportResultDTO> results = new ArrayList<>(chunk.size());
+        List<Integer> validIndexes = new ArrayList<>(chunk.size());
+
+        for (int i = 0; i < chunk.size(); i++) {
+            if (chunk.get(i) != null && requestBodyHasValidFields(chunk.get(i))) {
+                validIndexes.add(i);
+                results.add(null);
+            } else {
+                results.add(new AlbumImportResultDTO(chunkStart + i, AlbumImportResultDTO.Status.REJECTED, null,
+                        "Missing field(s) in request body"));
+            }
+        }
+
+        if (validIndexes.isEmpty()) {
+            return results;
+        }
+
+        try {
+            List<AlbumDTO> validAlbums = validIndexes.stream().map(chunk::get).toList();
+            Map<String, ArtistDTO> artistsByName = artistResolver.findOrCreateAll(validAlbums.stream()
+                    .map(albumDTO -> albumDTO.getArtist().getName())
+                    .toList());
+            List<AlbumDTO> savedAlbums = transactionTemplate.execute(status -> saveChunk(validAlbums, artistsByName));
+
+            for (int i = 0; i < validIndexes.size(); i++) {
+                int position = validIndexes.get(i);
+                results.set(position, new AlbumImportResultDTO(chunkStart + position, AlbumImportResultDTO.Status.CREATED,
+                        savedAlbums.get(i).getId(), null));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not import albums {} to {}", chunkStart + validIndexes.getFirst(),
+                    chunkStart + validIndexes.getLast(), e);
+
+            for (int position : validIndexes) {
+                results.set(position, new AlbumImportResultDTO(chunkStart + position, AlbumImportResultDTO.Status.FAILED,
+                        null, IMPORT_FAILED_MESSAGE));
+            }
+        }
+
+        return results;
+    }
+
+    private List<AlbumDTO> saveChunk(List<AlbumDTO> chunk, Map<String, ArtistDTO> artistsByName) {
+        List<Album> albums = chunk.stream()
+                .map(albumDTO -> {
+                    Album album = mapToEntity(albumDTO);
+                    album.setId(null);
+                    album.setArtist(mapToEntity(artistsByName.get(ArtistResolver.normalize(albumDTO.getArtist().getName()))));
+
+                    return album;
+                })
+                .toList();
+
+        List<AlbumDTO> savedAlbums = new ArrayList<>(albums.size());
+        albumRepository.saveAll(albums).forEach(album -> savedAlbums.add(mapToDTO(album)));
+
+        entityManager.flush();
+        entityManager.clear();
+
+        savedAlbums.forEach(album -> eventPublisher.publishEvent(new AlbumChangedEvent(album.getId(), null, album)));
+
+        return savedAlbums;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportAlbums(AlbumExportFormat format, OutputStream outputStream) throws IOException {
+        try (JsonGenerator generator = createExportGenerator(format, outputStream);
+             Stream<Album> albums = albumRepository.streamAllWithArtist()) {
+            for (Album album : (Iterable<Album>) albums::iterator) {
+                writeExportRow(generator, album);
+
+                if (format == AlbumExportFormat.NDJSON) {
+                    generator.writeRaw('\n');
+                }
+
+                entityManager.detach(album);
+                entityManager.detach(album.getArtist());
+            }
+        }
+    }
+
+    private JsonGenerator createExportGenerator(AlbumExportFormat format, OutputStream outputStream) throws IOException {
+        if (format == AlbumExportFormat.CSV) {
+            JsonGenerator generator = CSV_MAPPER.getFactory().createGenerator(outputStream);
+            generator.setSchema(EXPORT_CSV_SCHEMA);
+
+            return generator;
+        }
+
+        return JSON_FACTORY.createGenerator(outputStream);
+    }
+
+    private void writeExportRow(JsonGenerator generator, Album album) throws IOException {
+        generator.writeStartObject();
+        generator.writeNumberField("id", album.getId());
+        generator.writeStringField("name", album.getName());
+        generator.writeNumberField("artistId", album.getArtist().getId());
+        generator.writeStringField("artistName", album.getArtist().getName());
+        generator.writeStringField("genre", album.getGenre());
+        generator.writeStringField("coverArtUrl", album.getCoverArtUrl());
+        generator.writeNumberField("releaseYear", album.getReleaseYear());
+        generator.writeNumberField("stockQuantity", album.getStockQuantity());
+        generator.writeStringField("createdAt", formatTimestamp(album.getCreatedAt()));
+        generator.writeStringField("modifiedAt", formatTimestamp(album.getModifiedAt()));
+        generator.writeEndObject();
+    }
+
+    private String formatTimestamp(LocalDateTime timestamp) {
+        return timestamp == null ? null : DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(timestamp);
+    }
+
+    private void validateFilter(AlbumFilter filter) {
+        if (filter != null
+                && filter.getReleaseYearFrom() != null
+                && filter.getReleaseYearTo() != null
+                && filter.getReleaseYearFrom() > filter.getReleaseYearTo()) {
+            throw new InvalidQueryParameterException("releaseYearFrom must not be after releaseYearTo");
+        }
     }
 
     private boolean requestBodyHasValidFields(AlbumDTO albumDTO) {
@@ -140,10 +869,29 @@ public class AlbumServiceImpl implements AlbumService {
         albumDTO.setStockQuantity(album.getStockQuantity());
         albumDTO.setCreatedAt(album.getCreatedAt());
         albumDTO.setModifiedAt(album.getModifiedAt());
+        albumDTO.setVersion(album.getVersion());
 
         return albumDTO;
     }
 
+    AlbumDTO mapToDTO(AlbumView albumView) {
+        ArtistDTO artistDTO = new ArtistDTO(albumView.getArtistId(),
+                albumView.getArtistName(),
+                albumView.getArtistCreatedAt(),
+                albumView.getArtistModifiedAt());
+
+        return new AlbumDTO(albumView.getId(),
+                albumView.getName(),
+                artistDTO,
+                albumView.getGenre(),
+                albumView.getCoverArtUrl(),
+                albumView.getReleaseYear(),
+                albumView.getStockQuantity(),
+                albumView.getCreatedAt(),
+                albumView.getModifiedAt(),
+                albumView.getVersion());
+    }
+
     ArtistDTO mapToDTO(Artist artist){
         ArtistDTO artistDTO = new ArtistDTO();
 
@@ -0,0 +1,165 @@
+package recordshop.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import recordshop.dto.ArtistDTO;
+import recordshop.model.Artist;
+import recordshop.repository.ArtistRepository;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Component
+public class ArtistResolver {
+
+    public static final String CACHE_NAME = "artistsByName";
+
+    private final ArtistRepository artistRepository;
+    private final Cache<Object, Object> artistsByName;
+    private final TransactionTemplate requiresNewTransaction;
+
+    @Autowired
+    public ArtistResolver(ArtistRepository artistRepository, CacheManager cacheManager,
+                          PlatformTransactionManager transactionManager) {
+        this.artistRepository = artistRepository;
+        this.artistsByName = ((CaffeineCache) cacheManager.getCache(CACHE_NAME)).getNativeCache();
+        this.requiresNewTransaction = new TransactionTemplate(transactionManager);
+        this.requiresNewTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public static String normalize(String name) {
+        return name.strip();
+    }
+
+    public ArtistDTO find(String name) {
+        String key = normalize(name);
+        ArtistDTO cached = (ArtistDTO) artistsByName.getIfPresent(key);
+
+        if (cached != null) {
+            return cached;
+        }
+
+        Artist artist = artistRepository.findByName(key);
+
+        return artist == null ? null : remember(artist);
+    }
+
+    public ArtistDTO findOrCreate(String name) {
+        ArtistDTO existing = find(name);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        Artist created = artistRepository.saveAndFlush(new Artist(null, normalize(name), null, null, null));
+        ArtistDTO createdDTO = toDTO(created);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(createdDTO);
+                }
+            });
+
+            return createdDTO;
+        }
+
+        return remember(createdDTO);
+    }
+
+    public Map<String, ArtistDTO> findOrCreateAll(Collection<String> names) {
+        Map<String, ArtistDTO> artists = new HashMap<>();
+        Set<String> uncachedNames = new HashSet<>();
+
+        for (String name : names) {
+            String key = normalize(name);
+            ArtistDTO cached = getCached(key);
+
+            if (cached != null) {
+                artists.put(key, cached);
+            } else {
+                uncachedNames.add(key);
+            }
+        }
+
+        if (uncachedNames.isEmpty()) {
+            return artists;
+        }
+
+        artistRepository.findAllByNameIn(uncachedNames).forEach(artist -> artists.put(artist.getName(), remember(artist)));
+
+        List<String> missingNames = uncachedNames.stream()
+                .filter(name -> !artists.containsKey(name))
+                .toList();
+
+        if (missingNames.isEmpty()) {
+            return artists;
+        }
+
+        try {
+            requiresNewTransaction.execute(status -> artistRepository.saveAll(missingNames.stream()
+                            .map(name -> new Artist(null, name, null, null, null))
+                            .toList()))
+                    .forEach(artist -> artists.put(artist.getName(), remember(artist)));
+        } catch (DataIntegrityViolationException e) {
+            missingNames.forEach(name -> artists.put(name, findOrCreateInNewTransaction(name)));
+        }
+
+        return artists;
+    }
+
+    private ArtistDTO findOrCreateInNewTransaction(String name) {
+        ArtistDTO existing = find(name);
+
+        if (existing != null) {
+            return existing;
+        }
+
+        try {
+            Artist created = requiresNewTransaction.execute(status ->
+                    artistRepository.save(new Artist(null, name, null, null, null)));
+
+            return remember(created);
+        } catch (DataIntegrityViolationException e) {
+            Artist winner = artistRepository.findByName(name);
+
+            if (winner == null) {
+                throw e;
+            }
+
+            return remember(winner);
+        }
+    }
+
+    public ArtistDTO getCached(String name) {
+        return (ArtistDTO) artistsByName.getIfPresent(normalize(name));
+    }
+
+    public ArtistDTO remember(Artist artist) {
+        return remember(toDTO(artist));
+    }
+
+    public ArtistDTO remember(ArtistDTO artistDTO) {
+        artistsByName.put(normalize(artistDTO.getName()), artistDTO);
+
+        return artistDTO;
+    }
+
+    private static ArtistDTO toDTO(Artist artist) {
+        return new ArtistDTO(artist.getId(), artist.getName(), artist.getCreatedAt(), artist.getModifiedAt());
+    }
+}
@@ -0,0 +1,383 @@
+package recordshop.stock;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import recordshop.config.HotStockProperties;
+import recordshop.event.HotStockFlushedEvent;
+import recordshop.exception.InsufficientStockException;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@Slf4j
+@Component
+public class HotStockRegistry {
+
+    static final int MODE_LOCK_STRIPES = 64;
+    static final String FLUSH_SQL = "update albums set stock_quantity = stock_quantity - ?, modified_at = ?, "
+            + "version = version + 1 where id = ? and stock_quantity >= ?";
+    static final String STOCK_SQL = "select stock_quantity from albums where id = ?";
+    static final String RESTOCK_SQL = "update albums set stock_quantity = stock_quantity + ?, modified_at = ?, "
+            + "version = version + 1 where id = ?";
+
+    private final HotStockProperties properties;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final ReadWriteLock[] modeLocks = new ReadWriteLock[MODE_LOCK_STRIPES];
+    private final Map<Long, StripedStockCounter> counters = new ConcurrentHashMap<>();
+    private final Map<Long, LongAdder> coldReservations = new ConcurrentHashMap<>();
+    private final Set<Long> unflushableAlbumIds = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ReadWriteLock flushGate = new ReentrantReadWriteLock();
+    private final AtomicReference<CompletableFuture<Set<Long>>> nextFlush =
+            new AtomicReference<>(new CompletableFuture<>());
+
+    @Autowired
+    public HotStockRegistry(HotStockProperties properties, JdbcTemplate jdbcTemplate,
+                            ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate) {
+        this.properties = properties;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+
+        for (int i = 0; i < MODE_LOCK_STRIPES; i++) {
+            modeLocks[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    public boolean isHot(Long albumId) {
+        return counters.containsKey(albumId);
+    }
+
+    public Long available(Long albumId) {
+        StripedStockCounter counter = counters.get(albumId);
+
+        return counter == null ? null : counter.available();
+    }
+
+    public Map<Long, Long> reserve(Map<Long, Integer> quantitiesById, Consumer<Map<Long, Integer>> coldReservation) {
+        Map<Long, Integer> hotQuantities = new LinkedHashMap<>();
+        Map<Long, Integer> coldQuantities = new LinkedHashMap<>();
+        Map<Long, Long> remaining = new LinkedHashMap<>();
+        CompletableFuture<Set<Long>> flushed = null;
+        List<ReadWriteLock> locks = readLocks(quantitiesById.keySet());
+
+        try {
+            quantitiesById.forEach((albumId, quantity) -> {
+                if (counters.containsKey(albumId)) {
+                    hotQuantities.put(albumId, quantity);
+                } else {
+                    coldQuantities.put(albumId, quantity);
+                    coldReservations.computeIfAbsent(albumId, id -> new LongAdder()).increment();
+                }
+            });
+
+            Map<Long, Integer> reserved = new LinkedHashMap<>();
+
+            try {
+                hotQuantities.forEach((albumId, quantity) -> {
+                    if (!counters.get(albumId).tryReserve(quantity)) {
+                        throw new InsufficientStockException(
+                                String.format("Album with id '%s' has fewer than %d item(s) in stock", albumId, quantity));
+                    }
+
+                    reserved.put(albumId, quantity);
+                });
+
+                if (!coldQuantities.isEmpty()) {
+                    coldReservation.accept(coldQuantities);
+                }
+            } catch (RuntimeException e) {
+                reserved.forEach((albumId, quantity) -> counters.get(albumId).release(quantity));
+                throw e;
+            }
+
+            boolean groupCommit = !hotQuantities.isEmpty()
+                    && properties.getDurability() == HotStockProperties.Durability.GROUP_COMMIT;
+
+            if (groupCommit) {
+                flushGate.readLock().lock();
+            }
+
+            try {
+                hotQuantities.forEach((albumId, quantity) -> {
+                    StripedStockCounter counter = counters.get(albumId);
+                    counter.recordUnflushed(quantity);
+                    remaining.put(albumId, counter.available());
+                });
+
+                if (groupCommit) {
+                    flushed = nextFlush.get();
+                }
+            } finally {
+                if (groupCommit) {
+                    flushGate.readLock().unlock();
+                }
+            }
+        } finally {
+            locks.forEach(lock -> lock.readLock().unlock());
+        }
+
+        if (flushed != null) {
+            Set<Long> rejectedAlbumIds = flushed.join();
+
+            for (Long albumId : hotQuantities.keySet()) {
+                if (rejectedAlbumIds.contains(albumId)) {
+                    restock(hotQuantities, rejectedAlbumIds);
+                    throw new InsufficientStockException(String.format(
+                            "Album with id '%s' has fewer than %d item(s) in stock", albumId, hotQuantities.get(albumId)));
+                }
+            }
+        }
+
+        return remaining;
+    }
+
+    private void restock(Map<Long, Integer> quantitiesById, Set<Long> rejectedAlbumIds) {
+        Map<Long, Integer> written = new LinkedHashMap<>(quantitiesById);
+        written.keySet().removeAll(rejectedAlbumIds);
+
+        if (written.isEmpty()) {
+            return;
+        }
+
+        List<ReadWriteLock> locks = readLocks(written.keySet());
+
+        try {
+            written.forEach((albumId, quantity) -> {
+                StripedStockCounter counter = counters.get(albumId);
+
+                if (counter != null) {
+                    counter.release(quantity);
+                    counter.recordUnflushed(-quantity);
+                } else {
+                    jdbcTemplate.update(RESTOCK_SQL, quantity, Timestamp.valueOf(LocalDateTime.now()), albumId);
+                }
+            });
+        } finally {
+            locks.forEach(lock -> lock.readLock().unlock());
+        }
+    }
+
+    public <T> T withoutHotStock(Long albumId, Supplier<T> action) {
+        while (true) {
+            demote(albumId);
+            ReadWriteLock lock = modeLock(albumId);
+            lock.readLock().lock();
+
+            try {
+                if (!counters.containsKey(albumId)) {
+                    return action.get();
+                }
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+    }
+
+    public boolean promote(Long albumId) {
+        ReadWriteLock lock = modeLock(albumId);
+        lock.writeLock().lock();
+
+        try {
+            if (counters.containsKey(albumId)) {
+                return true;
+            }
+
+            coldReservations.remove(albumId);
+            List<Long> stock = jdbcTemplate.queryForList(STOCK_SQL, Long.class, albumId);
+
+            if (stock.isEmpty()) {
+                return false;
+            }
+
+            counters.put(albumId, new StripedStockCounter(properties.getStripes(), stock.getFirst()));
+
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void demote(Long albumId) {
+        if (!counters.containsKey(albumId)) {
+            return;
+        }
+
+        ReadWriteLock lock = modeLock(albumId);
+        lock.writeLock().lock();
+
+        try {
+            if (counters.containsKey(albumId)) {
+                flush();
+                counters.remove(albumId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recordshop.stock.hot.flush-interval:200ms}")
+    public void tick() {
+        if (!isEnabled()) {
+            return;
+        }
+
+        flush();
+
+        for (Long albumId : unflushableAlbumIds) {
+            unflushableAlbumIds.remove(albumId);
+            demote(albumId);
+        }
+
+        long promotionCount = Math.max(1,
+                properties.getPromotionThreshold() * properties.getFlushInterval().toMillis() / 1000);
+        int idleTicks = (int) Math.max(1,
+                properties.getIdleTimeout().toMillis() / Math.max(1, properties.getFlushInterval().toMillis()));
+
+        coldReservations.forEach((albumId, reservations) -> {
+            long count = reservations.sumThenReset();
+
+            if (count == 0) {
+                coldReservations.remove(albumId, reservations);
+            } else if (count >= promotionCount) {
+                promote(albumId);
+            }
+        });
+
+        counters.forEach((albumId, counter) -> {
+            if (counter.idleFor(idleTicks)) {
+                demote(albumId);
+            }
+        });
+    }
+
+    public void flush() {
+        flushLock.lock();
+
+        try {
+            flushUnflushed();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushUnflushed() {
+        CompletableFuture<Set<Long>> completing;
+        Map<Long, Long> deltas = new HashMap<>();
+
+        flushGate.writeLock().lock();
+
+        try {
+            completing = nextFlush.getAndSet(new CompletableFuture<>());
+
+            counters.forEach((albumId, counter) -> {
+                long delta = counter.drainUnflushed();
+
+                if (delta != 0) {
+                    deltas.put(albumId, delta);
+                }
+            });
+        } finally {
+            flushGate.writeLock().unlock();
+        }
+
+        if (deltas.isEmpty()) {
+            completing.complete(Set.of());
+            return;
+        }
+
+        Timestamp flushedAt = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> albumIds = new ArrayList<>(deltas.keySet());
+        List<Object[]> batch = new ArrayList<>(deltas.size());
+        albumIds.forEach(albumId -> batch.add(new Object[]{deltas.get(albumId), flushedAt, albumId, deltas.get(albumId)}));
+
+        Set<Long> rejectedAlbumIds = new HashSet<>();
+
+        try {
+            transactionTemplate.execute(status -> {
+                int[] updateCounts = jdbcTemplate.batchUpdate(FLUSH_SQL, batch);
+                Set<Long> flushedAlbumIds = new HashSet<>();
+                rejectedAlbumIds.clear();
+
+                for (int i = 0; i < albumIds.size(); i++) {
+                    if (updateCounts[i] == 0) {
+                        log.warn("Could not flush {} reserved item(s) of album {}: the database has less stock left, "
+                                + "rejecting its reservations and demoting it", deltas.get(albumIds.get(i)), albumIds.get(i));
+                        rejectedAlbumIds.add(albumIds.get(i));
+                    } else {
+                        flushedAlbumIds.add(albumIds.get(i));
+                    }
+                }
+
+                if (!flushedAlbumIds.isEmpty()) {
+                    eventPublisher.publishEvent(new HotStockFlushedEvent(flushedAlbumIds));
+                }
+
+                return null;
+            });
+        } catch (RuntimeException e) {
+            deltas.forEach((albumId, delta) -> counters.get(albumId).recordUnflushed(delta));
+            nextFlush.get().whenComplete((rejected, failure) -> completing.complete(rejected));
+            throw e;
+        }
+
+        unflushableAlbumIds.addAll(rejectedAlbumIds);
+        completing.complete(rejectedAlbumIds);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    private List<ReadWriteLock> readLocks(Iterable<Long> albumIds) {
+        TreeSet<Integer> stripes = new TreeSet<>();
+        albumIds.forEach(albumId -> stripes.add(stripe(albumId)));
+
+        List<ReadWriteLock> locks = new ArrayList<>(stripes.size());
+
+        for (int stripe : stripes) {
+            modeLocks[stripe].readLock().lock();
+            locks.add(modeLocks[stripe]);
+        }
+
+        return locks;
+    }
+
+    private ReadWriteLock modeLock(Long albumId) {
+        return modeLocks[stripe(albumId)];
+    }
+
+    private static int stripe(Long albumId) {
+        return Math.floorMod(albumId.hashCode(), MODE_LOCK_STRIPES);
+    }
+}
@@ -0,0 +1,108 @@
+package recordshop.stock;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+final class StripedStockCounter {
+
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray stripes;
+    private final int stripeCount;
+    private final LongAdder unflushed = new LongAdder();
+    private final LongAdder recentReservations = new LongAdder();
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+    private int idleTicks;
+
+    StripedStockCounter(int stripeCount, long stock) {
+        this.stripeCount = Math.max(1, stripeCount);
+        this.stripes = new AtomicLongArray(this.stripeCount * PADDING);
+        spread(stock);
+    }
+
+    boolean tryReserve(long quantity) {
+        recentReservations.increment();
+        int start = ThreadLocalRandom.current().nextInt(stripeCount);
+
+        for (int i = 0; i < stripeCount; i++) {
+            int index = ((start + i) % stripeCount) * PADDING;
+            long available = stripes.get(index);
+
+            while (available >= quantity) {
+                if (stripes.compareAndSet(index, available, available - quantity)) {
+                    return true;
+                }
+
+                available = stripes.get(index);
+            }
+        }
+
+        return rebalanceAndReserve(quantity);
+    }
+
+    void release(long quantity) {
+        stripes.addAndGet(ThreadLocalRandom.current().nextInt(stripeCount) * PADDING, quantity);
+    }
+
+    void recordUnflushed(long quantity) {
+        unflushed.add(quantity);
+    }
+
+    long drainUnflushed() {
+        return unflushed.sumThenReset();
+    }
+
+    long available() {
+        long total = 0;
+
+        for (int i = 0; i < stripeCount; i++) {
+            total += stripes.get(i * PADDING);
+        }
+
+        return total;
+    }
+
+    boolean idleFor(int ticks) {
+        if (recentReservations.sumThenReset() > 0) {
+            idleTicks = 0;
+            return false;
+        }
+
+        return ++idleTicks >= ticks;
+    }
+
+    private boolean rebalanceAndReserve(long quantity) {
+        rebalanceLock.lock();
+
+        try {
+            long total = 0;
+
+            for (int i = 0; i < stripeCount; i++) {
+                total += stripes.getAndSet(i * PADDING, 0);
+            }
+
+            boolean reserved = total >= quantity;
+
+            if (reserved) {
+                total -= quantity;
+            }
+
+            spread(total);
+
+            return reserved;
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    private void spread(long stock) {
+        long share = stock / stripeCount;
+        long remainder = stock % stripeCount;
+
+        for (int i = 0; i < stripeCount; i++) {
+            stripes.addAndGet(i * PADDING, share + (i < remainder ? 1 : 0));
+        }
+    }
+}
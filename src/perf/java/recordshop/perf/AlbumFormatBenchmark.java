@@ -0,0 +1,71 @@
+package recordshop.perf;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumDTO;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlbumFormatBenchmark {
+
+    @Param({"application/json", "application/cbor", "application/x-jackson-smile"})
+    private String format;
+
+    @Param({"1", "50", "500"})
+    private int size;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private List<AlbumDTO> albums;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() throws IOException {
+        JacksonFormats jacksonFormats = new JacksonFormats(Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build());
+        TypeReference<List<AlbumDTO>> albumList = new TypeReference<>() {
+        };
+
+        writer = jacksonFormats.mapper(MediaType.parseMediaType(format)).writerFor(albumList);
+        reader = jacksonFormats.mapper(MediaType.parseMediaType(format)).readerFor(albumList);
+        albums = PerfFixtures.albums(size);
+        payload = writer.writeValueAsBytes(albums);
+
+        System.out.printf("%n%s, %d albums: %d bytes%n", format, size, payload.length);
+    }
+
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(albums);
+    }
+
+    @Benchmark
+    public List<AlbumDTO> decode() throws IOException {
+        return reader.readValue(payload);
+    }
+}
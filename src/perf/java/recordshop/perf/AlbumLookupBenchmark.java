@@ -0,0 +1,77 @@
+package recordshop.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import recordshop.dto.AlbumDTO;
+import recordshop.service.AlbumService;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlbumLookupBenchmark {
+
+    private static final int HOT_ALBUMS = 64;
+
+    @Param("2000")
+    private int albums;
+
+    private ConfigurableApplicationContext context;
+    private AlbumService albumService;
+    private Cache albumCache;
+
+    @Setup
+    public void setUp() {
+        context = PerfFixtures.start("lookup", albums);
+        albumService = context.getBean(AlbumService.class);
+        albumCache = context.getBean(CacheManager.class).getCache("albums");
+
+        for (long id = 1; id <= HOT_ALBUMS; id++) {
+            albumService.getAlbumById(id);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private long next;
+
+        long next(long bound) {
+            return next++ % bound + 1;
+        }
+    }
+
+    @Benchmark
+    public AlbumDTO cacheHit(Cursor cursor) {
+        return albumService.getAlbumById(cursor.next(HOT_ALBUMS));
+    }
+
+    @Benchmark
+    public AlbumDTO cacheMiss(Cursor cursor) {
+        long id = cursor.next(albums);
+        albumCache.evict(id);
+
+        return albumService.getAlbumById(id);
+    }
+}
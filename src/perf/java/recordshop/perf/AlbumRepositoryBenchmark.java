@@ -0,0 +1,105 @@
+package recordshop.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumView;
+import recordshop.dto.FacetCountDTO;
+import recordshop.model.Album;
+import recordshop.repository.AlbumRepository;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlbumRepositoryBenchmark {
+
+    private static final int PAGE_SIZE = 50;
+
+    @Param("2000")
+    private int albums;
+
+    private ConfigurableApplicationContext context;
+    private AlbumRepository albumRepository;
+    private AlbumFilter allAlbums;
+    private AlbumFilter genreFilter;
+    private List<Long> pageIds;
+    private Set<AlbumField> listFields;
+
+    @Setup
+    public void setUp() {
+        context = PerfFixtures.start("repository", albums);
+        albumRepository = context.getBean(AlbumRepository.class);
+        allAlbums = new AlbumFilter();
+        genreFilter = new AlbumFilter("Genre 3", null, null, null, null);
+        listFields = EnumSet.of(AlbumField.ID, AlbumField.NAME, AlbumField.ARTIST_NAME);
+        pageIds = LongStream.rangeClosed(albums / 2, albums / 2 + PAGE_SIZE - 1).boxed().toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<Album> findById() {
+        return albumRepository.findById((long) albums / 2);
+    }
+
+    @Benchmark
+    public List<AlbumView> findFirstPage() {
+        return albumRepository.findViews(allAlbums, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<AlbumView> findFirstPageSparse() {
+        return albumRepository.findViews(allAlbums, listFields, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<AlbumView> findDeepPage() {
+        return albumRepository.findViews(allAlbums, (long) albums - PAGE_SIZE, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<AlbumView> findByGenre() {
+        return albumRepository.findViews(genreFilter, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<AlbumView> findViewsByIds() {
+        return albumRepository.findViewsByIds(pageIds);
+    }
+
+    @Benchmark
+    public AlbumListValidatorDTO findListValidator() {
+        return albumRepository.findListValidator(genreFilter);
+    }
+
+    @Benchmark
+    public List<FacetCountDTO<String>> countByGenre() {
+        return albumRepository.countByGenre(allAlbums);
+    }
+}
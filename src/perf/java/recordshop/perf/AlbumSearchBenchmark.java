@@ -0,0 +1,145 @@
+package recordshop.perf;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import recordshop.search.AlbumSearchIndex;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlbumSearchBenchmark {
+
+    private static final String[] SYLLABLES = {"ba", "ko", "ri", "mel", "son", "ta", "ver", "lu", "dan", "ce",
+            "mo", "ra", "ni", "shi", "tor", "ga", "le", "pin", "qu", "ez", "ho", "wi", "zar", "fe", "du", "ly", "nor",
+            "stra", "vi", "pe"};
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int QUERIES = 256;
+    private static final int LIMIT = 20;
+
+    @Param({"10000", "250000"})
+    private int albums;
+
+    private AlbumSearchIndex index;
+    private String[] exactQueries;
+    private String[] prefixQueries;
+    private String[] typoQueries;
+    private String[] commonQueries;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        List<String> vocabulary = vocabulary(random);
+        index = new AlbumSearchIndex(null);
+
+        for (long id = 1; id <= albums; id++) {
+            index.index(id, words(vocabulary, random, 1 + random.nextInt(4)),
+                    words(vocabulary, random, 2) + (id % 10 == 0 ? " band" : ""));
+        }
+
+        exactQueries = new String[QUERIES];
+        prefixQueries = new String[QUERIES];
+        typoQueries = new String[QUERIES];
+        commonQueries = new String[QUERIES];
+
+        for (int i = 0; i < QUERIES; i++) {
+            String first = word(vocabulary, random);
+            String second = word(vocabulary, random);
+            String longWord = longWord(vocabulary, random);
+            int swap = 1 + random.nextInt(longWord.length() - 2);
+
+            exactQueries[i] = first + " " + second;
+            prefixQueries[i] = first + " " + second.substring(0, Math.min(3, second.length()));
+            typoQueries[i] = longWord.substring(0, swap) + longWord.charAt(swap + 1) + longWord.charAt(swap)
+                    + longWord.substring(swap + 2);
+            commonQueries[i] = vocabulary.get(random.nextInt(8)) + " band";
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        int next() {
+            return next++ % QUERIES;
+        }
+    }
+
+    @Benchmark
+    public List<Long> exact(Cursor cursor) {
+        return index.search(exactQueries[cursor.next()], LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> prefix(Cursor cursor) {
+        return index.search(prefixQueries[cursor.next()], LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> typo(Cursor cursor) {
+        return index.search(typoQueries[cursor.next()], LIMIT);
+    }
+
+    @Benchmark
+    public List<Long> commonTerms(Cursor cursor) {
+        return index.search(commonQueries[cursor.next()], LIMIT);
+    }
+
+    private static List<String> vocabulary(Random random) {
+        Set<String> words = new LinkedHashSet<>();
+
+        while (words.size() < VOCABULARY_SIZE) {
+            StringBuilder word = new StringBuilder();
+
+            for (int syllables = 2 + random.nextInt(3); syllables > 0; syllables--) {
+                word.append(SYLLABLES[random.nextInt(SYLLABLES.length)]);
+            }
+
+            words.add(word.toString());
+        }
+
+        return new ArrayList<>(words);
+    }
+
+    private static String word(List<String> vocabulary, Random random) {
+        return vocabulary.get((int) (vocabulary.size() * Math.pow(random.nextDouble(), 3)));
+    }
+
+    private static String longWord(List<String> vocabulary, Random random) {
+        String word = word(vocabulary, random);
+
+        while (word.length() < 8) {
+            word = word(vocabulary, random);
+        }
+
+        return word;
+    }
+
+    private static String words(List<String> vocabulary, Random random, int count) {
+        StringBuilder words = new StringBuilder(word(vocabulary, random));
+
+        for (int i = 1; i < count; i++) {
+            words.append(' ').append(word(vocabulary, random));
+        }
+
+        return words.toString();
+    }
+}
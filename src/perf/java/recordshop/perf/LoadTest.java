@@ -0,0 +1,227 @@
+package recordshop.perf;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import recordshop.RecordShopApiApplication;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+public class LoadTest {
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    private static final String SUMMARY_FORMAT = "%-8s %9s %8s %10s %9s %9s %9s %9s %9s%n";
+
+    public static void main(String[] args) throws Exception {
+        int rate = Integer.getInteger("load.rate", 500);
+        Duration duration = Duration.ofSeconds(Long.getLong("load.duration-seconds", 30));
+        Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup-seconds", 10));
+        int albumCount = Integer.getInteger("load.albums", 5000);
+        Path output = Path.of(System.getProperty("load.output", "target/load-test"));
+        List<Operation> operations = operations(System.getProperty("load.mix", "get=60,list=25,create=5,update=10"));
+
+        try (ConfigurableApplicationContext context = start(args);
+             HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort()
+                    + VirtualThreadBenchmark.BASE_PATH;
+            AtomicLong created = new AtomicLong(albumCount);
+
+            VirtualThreadBenchmark.seed(client, baseUrl, albumCount);
+            run(client, baseUrl, operations, rate, warmup, albumCount, created);
+            operations.forEach(Operation::reset);
+            Duration elapsed = run(client, baseUrl, operations, rate, duration, albumCount, created);
+
+            report(operations, rate, elapsed, output);
+        }
+    }
+
+    static ConfigurableApplicationContext start(String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:load-test",
+                "--logging.level.root=WARN"));
+        arguments.addAll(List.of(args));
+
+        return new SpringApplicationBuilder(RecordShopApiApplication.class).run(arguments.toArray(String[]::new));
+    }
+
+    static List<Operation> operations(String mix) {
+        return Arrays.stream(mix.split(","))
+                .map(entry -> entry.trim().split("="))
+                .map(entry -> new Operation(entry[0], Integer.parseInt(entry[1])))
+                .filter(operation -> operation.weight > 0)
+                .toList();
+    }
+
+    static Duration run(HttpClient client, String baseUrl, List<Operation> operations, int rate, Duration duration,
+                        int albumCount, AtomicLong created) {
+        int totalWeight = operations.stream().mapToInt(operation -> operation.weight).sum();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long requests = duration.toSeconds() * rate;
+        long started = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; i < requests; i++) {
+                long intendedStart = started + i * intervalNanos;
+                long delay = intendedStart - System.nanoTime();
+
+                if (delay > 0) {
+                    LockSupport.parkNanos(delay);
+                }
+
+                Operation operation = pick(operations, totalWeight);
+                HttpRequest request = operation.request(baseUrl, albumCount, created);
+
+                executor.submit(() -> send(client, request, operation, intendedStart));
+            }
+        }
+
+        return Duration.ofNanos(System.nanoTime() - started);
+    }
+
+    static Operation pick(List<Operation> operations, int totalWeight) {
+        int choice = ThreadLocalRandom.current().nextInt(totalWeight);
+
+        for (Operation operation : operations) {
+            choice -= operation.weight;
+
+            if (choice < 0) {
+                return operation;
+            }
+        }
+
+        return operations.getLast();
+    }
+
+    static void send(HttpClient client, HttpRequest request, Operation operation, long intendedStart) {
+        boolean failed;
+
+        try {
+            failed = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() >= 400;
+        } catch (Exception e) {
+            failed = true;
+        }
+
+        long latencyMicros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedStart);
+        operation.latencies.recordValue(Math.min(latencyMicros, HIGHEST_TRACKABLE_MICROS));
+
+        if (failed) {
+            operation.errors.increment();
+        }
+    }
+
+    static void report(List<Operation> operations, int rate, Duration elapsed, Path output) throws IOException {
+        Files.createDirectories(output);
+        Histogram total = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+        long totalErrors = 0;
+
+        try (PrintStream summary = new PrintStream(Files.newOutputStream(output.resolve("summary.txt")))) {
+            for (PrintStream out : List.of(System.out, summary)) {
+                out.printf(Locale.ROOT, "Target rate %d req/s, completed in %.1fs, latency measured from the intended send time%n",
+                        rate, elapsed.toMillis() / 1000.0);
+                out.printf(SUMMARY_FORMAT, "endpoint", "requests", "errors", "req/s", "p50 ms", "p90 ms", "p99 ms",
+                        "p99.9 ms", "max ms");
+            }
+
+            for (Operation operation : operations) {
+                total.add(operation.latencies);
+                totalErrors += operation.errors.sum();
+                printSummary(List.of(System.out, summary), operation.name, operation.latencies, operation.errors.sum(), elapsed);
+
+                try (PrintStream histogram = new PrintStream(Files.newOutputStream(output.resolve(operation.name + ".hgrm")))) {
+                    operation.latencies.outputPercentileDistribution(histogram, 1000.0);
+                }
+            }
+
+            printSummary(List.of(System.out, summary), "total", total, totalErrors, elapsed);
+
+            try (PrintStream histogram = new PrintStream(Files.newOutputStream(output.resolve("total.hgrm")))) {
+                total.outputPercentileDistribution(histogram, 1000.0);
+            }
+        }
+
+        System.out.println("Percentile distributions written to " + output.toAbsolutePath());
+    }
+
+    static void printSummary(List<PrintStream> outputs, String name, Histogram latencies, long errors, Duration elapsed) {
+        for (PrintStream out : outputs) {
+            out.printf(Locale.ROOT, SUMMARY_FORMAT, name, latencies.getTotalCount(), errors,
+                    String.format(Locale.ROOT, "%.1f", latencies.getTotalCount() * 1000.0 / elapsed.toMillis()),
+                    millis(latencies.getValueAtPercentile(50)), millis(latencies.getValueAtPercentile(90)),
+                    millis(latencies.getValueAtPercentile(99)), millis(latencies.getValueAtPercentile(99.9)),
+                    millis(latencies.getMaxValue()));
+        }
+    }
+
+    static String millis(long micros) {
+        return String.format(Locale.ROOT, "%.2f", micros / 1000.0);
+    }
+
+    static String albumJson(long i, int stockQuantity) {
+        return String.format("{\"name\":\"Album %d\",\"artist\":{\"name\":\"Artist %d\"},\"genre\":\"Genre %d\","
+                + "\"releaseYear\":%d,\"stockQuantity\":%d}", i, i % 200, i % 12, 1960 + i % 60, stockQuantity);
+    }
+
+    static final class Operation {
+        private final String name;
+        private final int weight;
+        private final Histogram latencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        private final LongAdder errors = new LongAdder();
+
+        Operation(String name, int weight) {
+            this.name = name;
+            this.weight = weight;
+        }
+
+        HttpRequest request(String baseUrl, int albumCount, AtomicLong created) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+
+            return switch (name) {
+                case "get" -> HttpRequest.newBuilder(URI.create(baseUrl + "/" + (1 + random.nextInt(albumCount))))
+                        .GET().build();
+                case "list" -> HttpRequest.newBuilder(URI.create(baseUrl + "?limit=50&genre=Genre%20" + random.nextInt(12)
+                                + "&releaseYearFrom=" + (1960 + random.nextInt(50))))
+                        .GET().build();
+                case "create" -> HttpRequest.newBuilder(URI.create(baseUrl))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(albumJson(created.getAndIncrement(), 100)))
+                        .build();
+                case "update" -> {
+                    long id = 1 + random.nextInt(albumCount);
+
+                    yield HttpRequest.newBuilder(URI.create(baseUrl + "/" + id))
+                            .header("Content-Type", "application/json")
+                            .PUT(HttpRequest.BodyPublishers.ofString(albumJson(id - 1, random.nextInt(1000))))
+                            .build();
+                }
+                default -> throw new IllegalArgumentException("Unknown operation '" + name + "', expected get, list, create or update");
+            };
+        }
+
+        void reset() {
+            latencies.reset();
+            errors.reset();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package recordshop.perf;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import recordshop.RecordShopApiApplication;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.ArtistDTO;
+import recordshop.service.AlbumService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.IntStream;
+
+public final class PerfFixtures {
+
+    static final LocalDateTime TIMESTAMP = LocalDateTime.of(2024, 1, 1, 12, 0);
+
+    private PerfFixtures() {
+    }
+
+    public static AlbumDTO album(long i) {
+        ArtistDTO artist = new ArtistDTO(i % 200 + 1, "Artist " + i % 200, TIMESTAMP, TIMESTAMP);
+
+        return new AlbumDTO(i + 1, "Album " + i, artist, "Genre " + i % 12, "https://covers.example.com/" + i + ".jpg",
+                1960 + (int) (i % 60), 100, TIMESTAMP, TIMESTAMP, 0L);
+    }
+
+    public static List<AlbumDTO> albums(int count) {
+        return IntStream.range(0, count).mapToObj(PerfFixtures::album).toList();
+    }
+
+    public static ConfigurableApplicationContext start(String name, int albumCount) {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RecordShopApiApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:jmh-" + name,
+                        "--logging.level.root=WARN");
+
+        List<AlbumDTO> albums = albums(albumCount).stream()
+                .map(album -> new AlbumDTO(null, album.getName(), new ArtistDTO(null, album.getArtist().getName(), null, null),
+                        album.getGenre(), album.getCoverArtUrl(), album.getReleaseYear(), album.getStockQuantity(), null, null, null))
+                .toList();
+        context.getBean(AlbumService.class).importAlbums(albums.iterator());
+
+        return context;
+    }
+}
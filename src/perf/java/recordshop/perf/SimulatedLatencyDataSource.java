@@ -0,0 +1,86 @@
+package recordshop.perf;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+public class SimulatedLatencyDataSource extends DelegatingDataSource {
+
+    static final String LATENCY_PROPERTY = "perf.db-latency-ms";
+
+    private final Duration latency;
+
+    public SimulatedLatencyDataSource(DataSource dataSource, Duration latency) {
+        super(dataSource);
+        this.latency = latency;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return delayed(super.getConnection(), Connection.class);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return delayed(super.getConnection(username, password), Connection.class);
+    }
+
+    private <T> T delayed(T target, Class<T> type) {
+        Object proxy = Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (instance, method, args) -> {
+            if (method.getName().startsWith("execute") && !latency.isZero()) {
+                Thread.sleep(latency);
+            }
+
+            Object result;
+
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+
+            if (result instanceof CallableStatement statement && method.getReturnType() == CallableStatement.class) {
+                return delayed(statement, CallableStatement.class);
+            }
+
+            if (result instanceof PreparedStatement statement && method.getReturnType() == PreparedStatement.class) {
+                return delayed(statement, PreparedStatement.class);
+            }
+
+            if (result instanceof Statement statement && method.getReturnType() == Statement.class) {
+                return delayed(statement, Statement.class);
+            }
+
+            return result;
+        });
+
+        return type.cast(proxy);
+    }
+
+    public static class LatencyConfig {
+
+        @Bean
+        public static BeanPostProcessor simulatedLatencyPostProcessor() {
+            Duration latency = Duration.ofMillis(Long.getLong(LATENCY_PROPERTY, 2));
+
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource && !(bean instanceof SimulatedLatencyDataSource)
+                            ? new SimulatedLatencyDataSource(dataSource, latency)
+                            : bean;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package recordshop.perf;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import recordshop.RecordShopApiApplication;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class VirtualThreadBenchmark {
+
+    static final String BASE_PATH = "/api/v1/albums";
+
+    public static void main(String[] args) throws Exception {
+        int[] concurrencyLevels = Arrays.stream(System.getProperty("perf.concurrency", "16,64,256,1024").split(","))
+                .mapToInt(level -> Integer.parseInt(level.trim()))
+                .toArray();
+        Duration duration = Duration.ofSeconds(Long.getLong("perf.duration-seconds", 10));
+        Duration warmup = Duration.ofSeconds(Long.getLong("perf.warmup-seconds", 5));
+        int albumCount = Integer.getInteger("perf.albums", 2000);
+
+        System.out.printf("%-9s %8s %12s %10s %10s %8s%n", "threads", "clients", "req/s", "p50 ms", "p99 ms", "errors");
+
+        for (boolean virtualThreads : new boolean[]{false, true}) {
+            try (ConfigurableApplicationContext context = start(virtualThreads, args);
+                 HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build()) {
+                String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + BASE_PATH;
+
+                seed(client, baseUrl, albumCount);
+                run(client, baseUrl, concurrencyLevels[0], warmup, albumCount);
+
+                for (int clients : concurrencyLevels) {
+                    Result result = run(client, baseUrl, clients, duration, albumCount);
+
+                    System.out.printf("%-9s %8d %12.0f %10.2f %10.2f %8d%n", virtualThreads ? "virtual" : "platform",
+                            clients, result.throughput(), result.p50Millis(), result.p99Millis(), result.errors());
+                }
+            }
+        }
+    }
+
+    static ConfigurableApplicationContext start(boolean virtualThreads, String[] args) {
+        List<String> arguments = new ArrayList<>(List.of(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:perf-" + (virtualThreads ? "virtual" : "platform"),
+                "--recordshop.cache.default-spec=maximumSize=0",
+                "--recordshop.cache.specs.albums=maximumSize=0",
+                "--recordshop.cache.specs.albumLists=maximumSize=0",
+                "--logging.level.root=WARN"));
+        arguments.addAll(List.of(args));
+
+        return new SpringApplicationBuilder(RecordShopApiApplication.class, SimulatedLatencyDataSource.LatencyConfig.class)
+                .run(arguments.toArray(String[]::new));
+    }
+
+    static void seed(HttpClient client, String baseUrl, int albumCount) throws Exception {
+        String albums = IntStream.range(0, albumCount)
+                .mapToObj(i -> String.format("{\"name\":\"Album %d\",\"artist\":{\"name\":\"Artist %d\"},\"genre\":\"Genre %d\","
+                        + "\"releaseYear\":%d,\"stockQuantity\":100}", i, i % 200, i % 12, 1960 + i % 60))
+                .collect(Collectors.joining("\n"));
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/batch"))
+                .header("Content-Type", "application/x-ndjson")
+                .POST(HttpRequest.BodyPublishers.ofString(albums))
+                .build();
+
+        client.send(request, HttpResponse.BodyHandlers.discarding());
+    }
+
+    static Result run(HttpClient client, String baseUrl, int clients, Duration duration, int albumCount) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        LongAdder errors = new LongAdder();
+        List<Future<long[]>> workers = new ArrayList<>(clients);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                workers.add(executor.submit(() -> {
+                    long[] latencies = new long[1024];
+                    int count = 0;
+
+                    while (System.nanoTime() < deadline) {
+                        long started = System.nanoTime();
+
+                        try {
+                            HttpResponse<Void> response = client.send(nextRequest(baseUrl, albumCount),
+                                    HttpResponse.BodyHandlers.discarding());
+
+                            if (response.statusCode() != 200) {
+                                errors.increment();
+                            }
+                        } catch (Exception e) {
+                            errors.increment();
+                        }
+
+                        if (count == latencies.length) {
+                            latencies = Arrays.copyOf(latencies, count * 2);
+                        }
+
+                        latencies[count++] = System.nanoTime() - started;
+                    }
+
+                    return Arrays.copyOf(latencies, count);
+                }));
+            }
+
+            long[] latencies = new long[0];
+
+            for (Future<long[]> worker : workers) {
+                long[] workerLatencies = worker.get();
+                int offset = latencies.length;
+                latencies = Arrays.copyOf(latencies, offset + workerLatencies.length);
+                System.arraycopy(workerLatencies, 0, latencies, offset, workerLatencies.length);
+            }
+
+            Arrays.sort(latencies);
+
+            return new Result(latencies.length / (double) duration.toSeconds(),
+                    percentile(latencies, 0.50), percentile(latencies, 0.99), errors.sum());
+        }
+    }
+
+    static HttpRequest nextRequest(String baseUrl, int albumCount) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String path = random.nextInt(10) < 8
+                ? "/" + (1 + random.nextInt(albumCount))
+                : "?limit=20&after=" + cursor(random.nextInt(albumCount));
+
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+
+    static String cursor(long afterId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("id:" + afterId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    static double percentile(long[] sortedLatencies, double quantile) {
+        if (sortedLatencies.length == 0) {
+            return 0;
+        }
+
+        int index = (int) Math.ceil(quantile * sortedLatencies.length) - 1;
+
+        return sortedLatencies[Math.max(0, index)] / 1_000_000.0;
+    }
+
+    record Result(double throughput, double p50Millis, double p99Millis, long errors) {
+    }
+}
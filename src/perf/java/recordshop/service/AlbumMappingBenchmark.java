@@ -0,0 +1,47 @@
+package recordshop.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import recordshop.dto.AlbumDTO;
+import recordshop.model.Album;
+import recordshop.perf.PerfFixtures;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AlbumMappingBenchmark {
+
+    private final AlbumServiceImpl albumService = new AlbumServiceImpl();
+
+    private AlbumDTO albumDTO;
+    private Album album;
+
+    @Setup
+    public void setUp() {
+        albumDTO = PerfFixtures.album(42);
+        album = albumService.mapToEntity(albumDTO);
+    }
+
+    @Benchmark
+    public AlbumDTO mapToDTO() {
+        return albumService.mapToDTO(album);
+    }
+
+    @Benchmark
+    public Album mapToEntity() {
+        return albumService.mapToEntity(albumDTO);
+    }
+}
@@ -0,0 +1,81 @@
+package recordshop.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.MediaType;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.ArtistDTO;
+import recordshop.event.AlbumChangedEvent;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AlbumBodyCacheTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private AlbumBodyCache albumBodyCache;
+
+    @BeforeEach
+    public void setUp() {
+        albumBodyCache = new AlbumBodyCache(new CaffeineCacheManager(), new JacksonFormats(objectMapper));
+    }
+
+    @Test
+    @DisplayName("get: should encode once and serve the same bytes for an unchanged album")
+    public void testGetEncodesOnce() throws Exception {
+        AlbumDTO album = album(1L, "Rock", 5);
+
+        byte[] first = albumBodyCache.get(album, MediaType.APPLICATION_JSON);
+        byte[] second = albumBodyCache.get(album(1L, "Rock", 5), MediaType.APPLICATION_JSON);
+
+        assertThat(second).isSameAs(first);
+        assertThat(objectMapper.readValue(first, AlbumDTO.class)).isEqualTo(album);
+    }
+
+    @Test
+    @DisplayName("get: should re-encode when the album differs from the one the bytes were built from")
+    public void testGetReencodesChangedAlbum() throws Exception {
+        albumBodyCache.get(album(1L, "Rock", 5), MediaType.APPLICATION_JSON);
+
+        byte[] result = albumBodyCache.get(album(1L, "Rock", 4), MediaType.APPLICATION_JSON);
+
+        assertThat(objectMapper.readValue(result, AlbumDTO.class).getStockQuantity()).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should rebuild cached bodies on update and drop them on delete")
+    public void testOnAlbumChangedRebuildsAndDrops() {
+        AlbumDTO updated = album(1L, "Jazz", 5);
+        albumBodyCache.get(album(1L, "Rock", 5), MediaType.APPLICATION_JSON);
+
+        albumBodyCache.onAlbumChanged(new AlbumChangedEvent(1L, album(1L, "Rock", 5), updated));
+        byte[] rebuilt = albumBodyCache.get(updated, MediaType.APPLICATION_JSON);
+
+        assertThat(albumBodyCache.get(updated, MediaType.APPLICATION_JSON)).isSameAs(rebuilt);
+
+        albumBodyCache.onAlbumChanged(new AlbumChangedEvent(1L, updated, null));
+
+        assertThat(albumBodyCache.get(updated, MediaType.APPLICATION_JSON)).isNotSameAs(rebuilt).isEqualTo(rebuilt);
+    }
+
+    @Test
+    @DisplayName("get: should reject media types albums are not encoded in")
+    public void testGetRejectsUnsupportedMediaType() {
+        assertThrows(IllegalArgumentException.class,
+                () -> albumBodyCache.get(album(1L, "Rock", 5), MediaType.APPLICATION_XML));
+    }
+
+    private static AlbumDTO album(Long id, String genre, Integer stockQuantity) {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 12, 0);
+        ArtistDTO artist = new ArtistDTO(1L, "artist_name", timestamp, timestamp);
+
+        return new AlbumDTO(id, "album_name", artist, genre, null, 1999, stockQuantity, timestamp, timestamp, null);
+    }
+}
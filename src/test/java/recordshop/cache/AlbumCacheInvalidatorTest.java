@@ -0,0 +1,162 @@
+package recordshop.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.ArtistDTO;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.search.AlbumSearchIndex;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class AlbumCacheInvalidatorTest {
+
+    private final CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+    private final CaffeineCacheManager remoteCacheManager = new CaffeineCacheManager();
+    private final LoopbackCacheInvalidationBus bus = spy(new LoopbackCacheInvalidationBus());
+    private AlbumQueryCache albumQueryCache;
+    private AlbumQueryCache remoteAlbumQueryCache;
+    private AlbumBodyCache albumBodyCache;
+    private AlbumBodyCache remoteAlbumBodyCache;
+    private final AlbumSearchIndex albumSearchIndex = mock(AlbumSearchIndex.class);
+    private final AlbumSearchIndex remoteAlbumSearchIndex = mock(AlbumSearchIndex.class);
+    private AlbumCacheInvalidator albumCacheInvalidator;
+
+    @BeforeEach
+    public void setUp() {
+        JacksonFormats jacksonFormats = new JacksonFormats(new ObjectMapper().registerModule(new JavaTimeModule()));
+        albumQueryCache = new AlbumQueryCache(cacheManager, new SingleFlight<>(AlbumQueryCache.CACHE_NAME));
+        albumBodyCache = new AlbumBodyCache(cacheManager, jacksonFormats);
+        remoteAlbumQueryCache = new AlbumQueryCache(remoteCacheManager, new SingleFlight<>(AlbumQueryCache.CACHE_NAME));
+        remoteAlbumBodyCache = new AlbumBodyCache(remoteCacheManager, jacksonFormats);
+        albumCacheInvalidator = new AlbumCacheInvalidator(bus, cacheManager, albumQueryCache, albumBodyCache,
+                albumSearchIndex);
+        new AlbumCacheInvalidator(bus, remoteCacheManager, remoteAlbumQueryCache, remoteAlbumBodyCache,
+                remoteAlbumSearchIndex);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should publish each distinct change of a transaction once, before it commits, and deliver it after")
+    public void testOnAlbumChangedPublishesBeforeCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        albumCacheInvalidator.onAlbumChanged(new AlbumChangedEvent(3L, null, album(3L, "Rock")));
+        albumCacheInvalidator.onAlbumChanged(new AlbumChangedEvent(1L, null, album(1L, "Rock")));
+        albumCacheInvalidator.onAlbumChanged(new AlbumChangedEvent(3L, null, album(3L, "Rock")));
+
+        verify(bus, never()).publish(any(), any());
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> synchronization.beforeCommit(false));
+
+        verify(bus, times(1)).publish(any(), any());
+        verify(bus).publish(albumCacheInvalidator, Set.of(
+                AlbumInvalidation.of(new AlbumChangedEvent(3L, null, album(3L, "Rock"))),
+                AlbumInvalidation.of(new AlbumChangedEvent(1L, null, album(1L, "Rock")))));
+        verifyNoInteractions(remoteAlbumSearchIndex);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        verify(remoteAlbumSearchIndex).reindex(Set.of(3L, 1L));
+        assertThat(TransactionSynchronizationManager.getResource(albumCacheInvalidator)).isNull();
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should not deliver the changes of a transaction that rolls back")
+    public void testOnAlbumChangedDropsRolledBackChanges() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        albumCacheInvalidator.onAlbumChanged(new AlbumChangedEvent(1L, null, album(1L, "Rock")));
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(bus, never()).publish(any(), any());
+        verifyNoInteractions(remoteAlbumSearchIndex);
+    }
+
+    @Test
+    @DisplayName("invalidate: should evict received albums and only the lists their old or new values belong to, on other instances only")
+    public void testInvalidateEvictsMatchingListsOnOtherInstances() {
+        AtomicInteger listLoads = new AtomicInteger();
+        AlbumQueryKey rock = AlbumQueryKey.of(new AlbumFilter("Rock", null, null, null, null), null, null);
+        AlbumQueryKey blues = AlbumQueryKey.of(new AlbumFilter("Blues", null, null, null, null), null, null);
+        AlbumQueryKey jazz = AlbumQueryKey.of(new AlbumFilter("Jazz", null, null, null, null), null, null);
+        remoteCacheManager.getCache("albums").put(1L, album(1L, "Rock"));
+        remoteCacheManager.getCache("albums").put(2L, album(2L, "Rock"));
+        cacheManager.getCache("albums").put(1L, album(1L, "Rock"));
+        byte[] body = remoteAlbumBodyCache.get(album(1L, "Rock"), MediaType.APPLICATION_JSON);
+        remoteAlbumQueryCache.get(rock, () -> List.of(listLoads.incrementAndGet()));
+        remoteAlbumQueryCache.get(blues, () -> List.of(listLoads.incrementAndGet()));
+        remoteAlbumQueryCache.get(jazz, () -> List.of(listLoads.incrementAndGet()));
+
+        albumCacheInvalidator.onAlbumChanged(new AlbumChangedEvent(1L, album(1L, "Rock"), album(1L, "Blues")));
+
+        assertThat(remoteCacheManager.getCache("albums").get(1L)).isNull();
+        assertThat(remoteCacheManager.getCache("albums").get(2L)).isNotNull();
+        assertThat(remoteAlbumBodyCache.get(album(1L, "Rock"), MediaType.APPLICATION_JSON)).isNotSameAs(body);
+        assertThat(remoteAlbumQueryCache.get(rock, () -> List.of(listLoads.incrementAndGet()))).containsExactly(4);
+        assertThat(remoteAlbumQueryCache.get(blues, () -> List.of(listLoads.incrementAndGet()))).containsExactly(5);
+        assertThat(remoteAlbumQueryCache.get(jazz, () -> List.of(listLoads.incrementAndGet()))).containsExactly(3);
+        assertThat(cacheManager.getCache("albums").get(1L)).isNotNull();
+        verify(remoteAlbumSearchIndex).reindex(Set.of(1L));
+        verifyNoInteractions(albumSearchIndex);
+    }
+
+    @Test
+    @DisplayName("invalidate: should clear every cached list for an album whose old and new values were not sent")
+    public void testInvalidateClearsListsForUnknownChanges() {
+        AtomicInteger listLoads = new AtomicInteger();
+        AlbumQueryKey jazz = AlbumQueryKey.of(new AlbumFilter("Jazz", null, null, null, null), null, null);
+        remoteAlbumQueryCache.get(jazz, () -> List.of(listLoads.incrementAndGet()));
+
+        bus.publish(albumCacheInvalidator, List.of(AlbumInvalidation.unknown(1L)));
+
+        assertThat(remoteAlbumQueryCache.get(jazz, () -> List.of(listLoads.incrementAndGet()))).containsExactly(2);
+    }
+
+    @Test
+    @DisplayName("invalidateAll: should clear every album cache after a gap in the invalidation stream")
+    public void testInvalidateAllClearsCaches() {
+        cacheManager.getCache("albums").put(2L, album(2L, "Rock"));
+        byte[] body = albumBodyCache.get(album(2L, "Rock"), MediaType.APPLICATION_JSON);
+
+        albumCacheInvalidator.invalidateAll();
+
+        assertThat(cacheManager.getCache("albums").get(2L)).isNull();
+        assertThat(albumBodyCache.get(album(2L, "Rock"), MediaType.APPLICATION_JSON)).isNotSameAs(body);
+        verify(albumSearchIndex).load();
+    }
+
+    private static AlbumDTO album(Long id, String genre) {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+        return new AlbumDTO(id, "album_name", new ArtistDTO(1L, "artist_name", timestamp, timestamp), genre, null,
+                1999, 5, timestamp, timestamp, null);
+    }
+}
@@ -0,0 +1,146 @@
+package recordshop.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.ArtistDTO;
+import recordshop.event.AlbumChangedEvent;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class AlbumQueryCacheTest {
+
+    private AlbumQueryCache albumQueryCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        albumQueryCache = new AlbumQueryCache(new CaffeineCacheManager(), new SingleFlight<>(AlbumQueryCache.CACHE_NAME));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    @DisplayName("get: should load once and serve repeated lookups from the cache")
+    public void testGetLoadsOnce() {
+        AlbumQueryKey key = AlbumQueryKey.of(genre("Rock"), null, null);
+
+        albumQueryCache.get(key, this::load);
+        List<String> result = albumQueryCache.get(key, this::load);
+
+        assertThat(result).containsExactly("loaded");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should evict only entries whose filter matches the old or new album")
+    public void testOnAlbumChangedEvictsMatchingEntriesOnly() {
+        AlbumQueryKey all = AlbumQueryKey.of(new AlbumFilter(), null, null);
+        AlbumQueryKey rock = AlbumQueryKey.of(genre("Rock"), null, null);
+        AlbumQueryKey jazz = AlbumQueryKey.of(genre("Jazz"), null, null);
+        AlbumQueryKey blues = AlbumQueryKey.of(genre("Blues"), null, null);
+        AlbumQueryKey rockAfterAlbum = AlbumQueryKey.of(genre("Rock"), 10, 5L);
+        List.of(all, rock, jazz, blues, rockAfterAlbum).forEach(key -> albumQueryCache.get(key, this::load));
+
+        albumQueryCache.onAlbumChanged(new AlbumChangedEvent(5L, album(5L, "Rock"), album(5L, "Jazz")));
+        List.of(all, rock, jazz, blues, rockAfterAlbum).forEach(key -> albumQueryCache.get(key, this::load));
+
+        assertThat(loads).hasValue(5 + 3);
+    }
+
+    @Test
+    @DisplayName("get: should not cache a result loaded while an album changed")
+    public void testGetSkipsCachingResultsRacingAWrite() {
+        AlbumQueryKey key = AlbumQueryKey.of(genre("Rock"), null, null);
+
+        albumQueryCache.get(key, () -> {
+            albumQueryCache.onAlbumChanged(new AlbumChangedEvent(1L, null, album(1L, "Rock")));
+            return load();
+        });
+        albumQueryCache.get(key, this::load);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should evict combined and year-range filters only when every criterion matches")
+    public void testOnAlbumChangedMatchesCombinedFilters() {
+        AlbumQueryKey rockIn2000s = AlbumQueryKey.of(new AlbumFilter("Rock", null, 2000, 2009, null), null, null);
+        AlbumQueryKey rockIn1990s = AlbumQueryKey.of(new AlbumFilter("Rock", null, 1990, 1999, null), null, null);
+        List.of(rockIn2000s, rockIn1990s).forEach(key -> albumQueryCache.get(key, this::load));
+
+        albumQueryCache.onAlbumChanged(new AlbumChangedEvent(5L, null, album(5L, "Rock")));
+        List.of(rockIn2000s, rockIn1990s).forEach(key -> albumQueryCache.get(key, this::load));
+
+        assertThat(loads).hasValue(2 + 1);
+    }
+
+    @Test
+    @DisplayName("get: should keep facets apart from lists for the same filter and evict both on a matching change")
+    public void testFacetsAreCachedSeparatelyFromLists() {
+        AlbumQueryKey rockList = AlbumQueryKey.of(genre("Rock"), null, null);
+        AlbumQueryKey rockFacets = AlbumQueryKey.facets(genre("Rock"));
+        List.of(rockList, rockFacets).forEach(key -> albumQueryCache.get(key, this::load));
+
+        assertThat(loads).hasValue(2);
+
+        albumQueryCache.onAlbumChanged(new AlbumChangedEvent(5L, null, album(5L, "Rock")));
+        List.of(rockList, rockFacets).forEach(key -> albumQueryCache.get(key, this::load));
+
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should collect a transaction's changes and evict their entries in one pass after commit")
+    public void testOnAlbumChangedInvalidatesTransactionBatchAfterCommit() {
+        AlbumQueryKey rock = AlbumQueryKey.of(genre("Rock"), null, null);
+        AlbumQueryKey jazz = AlbumQueryKey.of(genre("Jazz"), null, null);
+        AlbumQueryKey blues = AlbumQueryKey.of(genre("Blues"), null, null);
+        List.of(rock, jazz, blues).forEach(key -> albumQueryCache.get(key, this::load));
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            for (long albumId = 1; albumId <= 100; albumId++) {
+                albumQueryCache.onAlbumChanged(new AlbumChangedEvent(albumId, null,
+                        album(albumId, albumId % 2 == 0 ? "Rock" : "Jazz")));
+            }
+
+            List.of(rock, jazz, blues).forEach(key -> albumQueryCache.get(key, this::load));
+            assertThat(loads).hasValue(3);
+            assertThat(TransactionSynchronizationManager.getSynchronizations()).hasSize(1);
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(synchronization -> {
+                synchronization.afterCommit();
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            });
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        List.of(rock, jazz, blues).forEach(key -> albumQueryCache.get(key, this::load));
+
+        assertThat(loads).hasValue(3 + 2);
+        assertThat(TransactionSynchronizationManager.getResource(albumQueryCache)).isNull();
+    }
+
+    private AlbumFilter genre(String genre) {
+        return new AlbumFilter(genre, null, null, null, null);
+    }
+
+    private List<String> load() {
+        loads.incrementAndGet();
+
+        return List.of("loaded");
+    }
+
+    private AlbumDTO album(Long id, String genre) {
+        return new AlbumDTO(id, "album", new ArtistDTO(1L, "artist", null, null), genre, null, 2000, 1, null, null, null);
+    }
+}
@@ -0,0 +1,99 @@
+package recordshop.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import recordshop.config.CacheProperties;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.ArtistDTO;
+import recordshop.event.AlbumChangedEvent;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+public class PostgresCacheInvalidationBusTest {
+
+    private final PostgresCacheInvalidationBus bus = bus(new CacheProperties.Invalidation());
+
+    @Test
+    @DisplayName("payloads: should split large batches into NOTIFY payloads under the byte limit and keep every change")
+    public void testPayloadsStayUnderNotifyLimit() {
+        List<AlbumInvalidation> invalidations = LongStream.rangeClosed(1, 500)
+                .mapToObj(id -> AlbumInvalidation.of(new AlbumChangedEvent(id, album(id, "Rock", "Sigur Rós"),
+                        album(id, "Post-rock", "Sigur Rós"))))
+                .toList();
+        CacheInvalidationListener listener = mock(CacheInvalidationListener.class);
+        PostgresCacheInvalidationBus other = bus(new CacheProperties.Invalidation());
+        other.subscribe(listener);
+
+        List<String> payloads = bus.payloads(invalidations);
+
+        assertThat(payloads).hasSizeGreaterThan(1).allSatisfy(payload ->
+                assertThat(payload.getBytes(StandardCharsets.UTF_8).length)
+                        .isLessThanOrEqualTo(PostgresCacheInvalidationBus.MAX_PAYLOAD_LENGTH));
+
+        List<AlbumInvalidation> received = new ArrayList<>();
+        doAnswer(invocation -> received.addAll(invocation.getArgument(0))).when(listener).invalidate(any());
+        payloads.forEach(other::receive);
+
+        assertThat(received).isEqualTo(invalidations);
+    }
+
+    @Test
+    @DisplayName("payloads: should send an album id alone when its change does not fit in one payload")
+    public void testPayloadsFallBackToUnknownChange() {
+        AlbumInvalidation invalidation = AlbumInvalidation.of(new AlbumChangedEvent(1L, null,
+                album(1L, "x".repeat(PostgresCacheInvalidationBus.MAX_PAYLOAD_LENGTH), "artist")));
+        CacheInvalidationListener listener = mock(CacheInvalidationListener.class);
+        PostgresCacheInvalidationBus other = bus(new CacheProperties.Invalidation());
+        other.subscribe(listener);
+
+        bus.payloads(List.of(invalidation)).forEach(other::receive);
+
+        verify(listener).invalidate(List.of(AlbumInvalidation.unknown(1L)));
+    }
+
+    @Test
+    @DisplayName("receive: should deliver other nodes' invalidations, skip its own and clear everything on unreadable ones")
+    public void testReceiveSkipsOwnMessages() {
+        CacheInvalidationListener listener = mock(CacheInvalidationListener.class);
+        bus.subscribe(listener);
+
+        bus.payloads(List.of(AlbumInvalidation.unknown(1L))).forEach(bus::receive);
+        bus.receive("another-node|[{\"albumId\":2,\"current\":{\"genre\":\"Jazz\"}}]");
+        bus.receive("another-node|2,3");
+
+        verify(listener, times(1)).invalidate(argThat((Collection<AlbumInvalidation> invalidations) ->
+                invalidations.size() == 1 && invalidations.iterator().next().getCurrent().getGenre().equals("Jazz")));
+        verify(listener, times(1)).invalidateAll();
+        verifyNoMoreInteractions(listener);
+    }
+
+    @Test
+    @DisplayName("constructor: should reject channel names that are not plain identifiers")
+    public void testRejectsInvalidChannel() {
+        CacheProperties.Invalidation properties = new CacheProperties.Invalidation();
+        properties.setChannel("albums; drop table albums");
+
+        assertThrows(IllegalArgumentException.class, () -> bus(properties));
+    }
+
+    private static PostgresCacheInvalidationBus bus(CacheProperties.Invalidation properties) {
+        return new PostgresCacheInvalidationBus(mock(DataSource.class), mock(DataSource.class), new ObjectMapper(),
+                properties);
+    }
+
+    private static AlbumDTO album(Long id, String genre, String artistName) {
+        return new AlbumDTO(id, "album_name", new ArtistDTO(1L, artistName, null, null), genre, null, 1999, 5, null,
+                null, null);
+    }
+}
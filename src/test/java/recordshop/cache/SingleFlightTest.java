@@ -0,0 +1,137 @@
+package recordshop.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import recordshop.exception.ItemNotFoundException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class SingleFlightTest {
+
+    private static final int WAITERS = 8;
+
+    private SingleFlight<String, String> singleFlight;
+    private AtomicInteger loads;
+    private CountDownLatch release;
+
+    @BeforeEach
+    public void setUp() {
+        singleFlight = new SingleFlight<>("test");
+        loads = new AtomicInteger();
+        release = new CountDownLatch(1);
+    }
+
+    @Test
+    @DisplayName("load: should share one in-flight load between concurrent callers for the same key")
+    public void testLoadCoalescesConcurrentCallers() throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = submitWaiters(executor, () -> {
+                loads.incrementAndGet();
+                await(release);
+                return "loaded";
+            });
+
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThat(result.get(5, TimeUnit.SECONDS)).isEqualTo("loaded");
+            }
+        }
+
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getLoads()).isEqualTo(1);
+        assertThat(singleFlight.getCoalesced()).isEqualTo(WAITERS - 1);
+    }
+
+    @Test
+    @DisplayName("load: should rethrow the leader's exception to every waiter and load again afterwards")
+    public void testLoadSharesExceptions() throws Exception {
+        ItemNotFoundException failure = new ItemNotFoundException("Album with id '1' could not be found");
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<String>> results = submitWaiters(executor, () -> {
+                loads.incrementAndGet();
+                await(release);
+                throw failure;
+            });
+
+            release.countDown();
+
+            for (Future<String> result : results) {
+                assertThatThrownBy(() -> result.get(5, TimeUnit.SECONDS)).hasCause(failure);
+            }
+        }
+
+        assertThat(singleFlight.load("key", () -> "recovered")).isEqualTo("recovered");
+        assertThat(loads).hasValue(1);
+        assertThat(singleFlight.getLoads()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("load: should not coalesce different keys")
+    public void testLoadKeepsKeysIndependent() {
+        assertThat(singleFlight.load("a", () -> "first")).isEqualTo("first");
+        assertThat(singleFlight.load("b", () -> "second")).isEqualTo("second");
+        assertThat(singleFlight.load("a", () -> "third")).isEqualTo("third");
+
+        assertThat(singleFlight.getLoads()).isEqualTo(3);
+        assertThat(singleFlight.getCoalesced()).isZero();
+    }
+
+    @Test
+    @DisplayName("bindTo: should expose load and coalesced counters tagged with the flight name")
+    public void testBindToRegistersCounters() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry);
+
+        singleFlight.load("a", () -> "value");
+
+        assertThat(registry.get("recordshop.singleflight.loads").tag("name", "test").functionCounter().count())
+                .isEqualTo(1.0);
+        assertThat(registry.get("recordshop.singleflight.coalesced").tag("name", "test").functionCounter().count())
+                .isZero();
+    }
+
+    private List<Future<String>> submitWaiters(ExecutorService executor, Supplier<String> loader)
+            throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        List<Future<String>> results = new ArrayList<>();
+
+        results.add(executor.submit(() -> singleFlight.load("key", () -> {
+            started.countDown();
+            return loader.get();
+        })));
+        started.await(5, TimeUnit.SECONDS);
+
+        for (int i = 1; i < WAITERS; i++) {
+            results.add(executor.submit(() -> singleFlight.load("key", loader)));
+        }
+
+        while (singleFlight.getCoalesced() < WAITERS - 1) {
+            Thread.sleep(1);
+        }
+
+        return results;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package recordshop.changes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.config.ChangeFeedProperties;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.repository.AlbumChangeRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class AlbumChangeLogTest {
+
+    private final JdbcTemplate mockJdbcTemplate = mock(JdbcTemplate.class);
+    private final AlbumChangeRepository mockAlbumChangeRepository = mock(AlbumChangeRepository.class);
+    private AlbumChangeLog albumChangeLog;
+
+    @BeforeEach
+    public void setUp() {
+        albumChangeLog = new AlbumChangeLog(mockJdbcTemplate, mockAlbumChangeRepository, new ChangeFeedProperties());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should record upserts and delete tombstones straight away outside a transaction")
+    public void testOnAlbumChangedRecordsImmediately() {
+        albumChangeLog.onAlbumChanged(new AlbumChangedEvent(1L, null, null));
+
+        verify(mockJdbcTemplate, times(1)).batchUpdate(eq(AlbumChangeLog.INSERT_SQL), argThat((List<Object[]> rows) ->
+                rows.size() == 1 && rows.getFirst()[0].equals(1L) && rows.getFirst()[1].equals("DELETE")));
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should batch every change in a transaction into one insert before it commits")
+    public void testOnAlbumChangedBatchesUntilCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        albumChangeLog.onAlbumChanged(new AlbumChangedEvent(1L, null, null));
+        albumChangeLog.onAlbumChanged(new AlbumChangedEvent(2L, null, null));
+
+        verifyNoInteractions(mockJdbcTemplate);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(synchronization -> synchronization.beforeCommit(false));
+        synchronizations.forEach(synchronization -> synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.captor();
+        verify(mockJdbcTemplate, times(1)).batchUpdate(eq(AlbumChangeLog.INSERT_SQL), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0]).containsExactly(1L, 2L);
+        assertThat(TransactionSynchronizationManager.getResource(albumChangeLog)).isNull();
+    }
+
+    @Test
+    @DisplayName("purge: should delete changes older than the retention window plus the settle time in batches")
+    public void testPurgeDeletesExpiredChangesInBatches() {
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        ChangeFeedProperties properties = new ChangeFeedProperties();
+        properties.setPurgeBatchSize(2);
+        albumChangeLog = new AlbumChangeLog(mockJdbcTemplate, mockAlbumChangeRepository, properties);
+        when(mockAlbumChangeRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        when(mockAlbumChangeRepository.deleteChangedBefore(any(), eq(2))).thenReturn(2, 2, 1);
+
+        assertThat(albumChangeLog.purge()).isEqualTo(5);
+
+        verify(mockAlbumChangeRepository, times(3)).deleteChangedBefore(cutoff.capture(), eq(2));
+        assertThat(cutoff.getAllValues()).allSatisfy(value ->
+                assertThat(value).isBefore(LocalDateTime.now().minusDays(7)).isAfter(LocalDateTime.now().minusDays(8)));
+        verify(mockJdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+}
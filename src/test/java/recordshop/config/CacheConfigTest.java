@@ -0,0 +1,122 @@
+package recordshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.http.MediaType;
+import recordshop.cache.AlbumBodyCache;
+import recordshop.cache.AlbumQueryCache;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+public class CacheConfigTest {
+
+    @Test
+    @DisplayName("cacheManager: should build bounded Caffeine caches that record hit/miss/eviction statistics")
+    public void testCacheManagerBuildsBoundedCaffeineCachesWithStats() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getSpecs().put("albums", "maximumSize=2,expireAfterWrite=1m,recordStats");
+
+        CacheManager cacheManager = new CacheConfig().cacheManager(cacheProperties);
+        CaffeineCache albums = (CaffeineCache) cacheManager.getCache("albums");
+        Cache<Object, Object> nativeCache = albums.getNativeCache();
+
+        albums.put(1L, "album1");
+        albums.get(1L);
+        albums.get(2L);
+        albums.put(2L, "album2");
+        albums.put(3L, "album3");
+        nativeCache.cleanUp();
+
+        CacheStats stats = nativeCache.stats();
+
+        assertThat(cacheManager.getCacheNames()).contains("albums");
+        assertThat(nativeCache.estimatedSize()).isLessThanOrEqualTo(2);
+        assertThat(stats.hitCount()).isEqualTo(1);
+        assertThat(stats.missCount()).isEqualTo(1);
+        assertThat(stats.evictionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("cacheManager: should apply the default spec to caches without their own spec")
+    public void testCacheManagerAppliesDefaultSpec() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setDefaultSpec("maximumSize=5,recordStats");
+
+        CaffeineCache other = (CaffeineCache) new CacheConfig().cacheManager(cacheProperties).getCache("other");
+
+        assertThat(other).isNotNull();
+        assertThat(other.getNativeCache().policy().eviction()).hasValueSatisfying(eviction ->
+                assertThat(eviction.getMaximum()).isEqualTo(5));
+    }
+
+    @Test
+    @DisplayName("cacheManager: should bound albumLists by the size of the cached bodies when given a maximum weight")
+    public void testCacheManagerWeighsAlbumListsByBodySize() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getSpecs().put(AlbumQueryCache.CACHE_NAME, "maximumWeight=10000,recordStats");
+
+        CaffeineCache albumLists = (CaffeineCache) new CacheConfig().cacheManager(cacheProperties)
+                .getCache(AlbumQueryCache.CACHE_NAME);
+
+        albumLists.put("small", new EncodedAlbumListDTO(new byte[100], false, null));
+        albumLists.getNativeCache().cleanUp();
+
+        assertThat(albumLists.getNativeCache().policy().eviction()).hasValueSatisfying(eviction ->
+                assertThat(eviction.weightedSize()).hasValue(1024 + 100));
+
+        albumLists.put("catalog", new EncodedAlbumListDTO(new byte[9000], true, null));
+        albumLists.getNativeCache().cleanUp();
+
+        assertThat(albumLists.getNativeCache().policy().eviction()).hasValueSatisfying(eviction ->
+                assertThat(eviction.weightedSize().getAsLong()).isLessThanOrEqualTo(10000));
+        assertThat(albumLists.getNativeCache().estimatedSize()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("cacheManager: should bound albumBodies by the size of the cached bodies when given a maximum weight")
+    public void testCacheManagerWeighsAlbumBodiesByBodySize() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getSpecs().put(AlbumBodyCache.CACHE_NAME, "maximumWeight=10000,recordStats");
+        CacheManager cacheManager = new CacheConfig().cacheManager(cacheProperties);
+        JacksonFormats jacksonFormats = mock(JacksonFormats.class);
+        when(jacksonFormats.mapper(MediaType.APPLICATION_JSON)).thenReturn(new ObjectMapper());
+
+        byte[] body = new AlbumBodyCache(cacheManager, jacksonFormats).get(new AlbumDTO(), MediaType.APPLICATION_JSON);
+        CaffeineCache albumBodies = (CaffeineCache) cacheManager.getCache(AlbumBodyCache.CACHE_NAME);
+        albumBodies.getNativeCache().cleanUp();
+
+        assertThat(albumBodies.getNativeCache().policy().eviction()).hasValueSatisfying(eviction ->
+                assertThat(eviction.weightedSize()).hasValue(1024 + body.length));
+    }
+
+    @Test
+    @DisplayName("cacheManager: should reject a maximum weight on a cache that cannot weigh its entries")
+    public void testCacheManagerRejectsMaximumWeightWithoutWeigher() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.getSpecs().put("albums", "maximumWeight=10000,recordStats");
+
+        assertThatThrownBy(() -> new CacheConfig().cacheManager(cacheProperties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("recordshop.cache.specs.albums sets maximumWeight");
+    }
+
+    @Test
+    @DisplayName("cacheManager: should reject a maximum weight in the default spec")
+    public void testCacheManagerRejectsMaximumWeightInDefaultSpec() {
+        CacheProperties cacheProperties = new CacheProperties();
+        cacheProperties.setDefaultSpec("maximumWeight=10000");
+
+        assertThatThrownBy(() -> new CacheConfig().cacheManager(cacheProperties))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageStartingWith("recordshop.cache.default-spec sets maximumWeight");
+    }
+}
@@ -0,0 +1,79 @@
+package recordshop.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import recordshop.exception.ServerBusyException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.*;
+
+public class ConnectionLimitingDataSourceTest {
+
+    private final DataSource targetDataSource = mock(DataSource.class);
+
+    @Test
+    @DisplayName("getConnection: should refuse a connection past the acquire timeout while every permit is held, until one is closed")
+    public void testGetConnectionRejectsWhenSaturated() throws Exception {
+        Connection target = mock(Connection.class);
+        when(targetDataSource.getConnection()).thenReturn(target);
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, Duration.ofMillis(50));
+
+        Connection first = dataSource.getConnection();
+
+        assertThrows(ServerBusyException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        Connection second = dataSource.getConnection();
+
+        assertThrows(ServerBusyException.class, dataSource::getConnection);
+        assertThat(second).isNotEqualTo(first).isEqualTo(second);
+        verify(targetDataSource, times(2)).getConnection();
+        verify(target, times(2)).close();
+    }
+
+    @Test
+    @DisplayName("getConnection: should give the permit back when the pool fails to hand out a connection")
+    public void testGetConnectionReleasesPermitOnFailure() throws Exception {
+        when(targetDataSource.getConnection()).thenThrow(new SQLException("pool exhausted")).thenReturn(mock(Connection.class));
+        ConnectionLimitingDataSource dataSource = new ConnectionLimitingDataSource(targetDataSource, 1, Duration.ofMillis(50));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertThat(dataSource.getConnection()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("postProcessAfterInitialization: should wrap data sources in a limit derived from the pool size unless set explicitly")
+    @SuppressWarnings("unchecked")
+    public void testPostProcessorWrapsDataSources() {
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        ObjectProvider<ConcurrencyLimitProperties> propertiesProvider = mock(ObjectProvider.class);
+        when(propertiesProvider.getObject()).thenReturn(properties);
+        BeanPostProcessor postProcessor = VirtualThreadConfig.connectionLimitingDataSourcePostProcessor(propertiesProvider);
+
+        try (HikariDataSource dataSource = new HikariDataSource()) {
+            dataSource.setMaximumPoolSize(8);
+
+            Object wrapped = postProcessor.postProcessAfterInitialization(dataSource, "dataSource");
+
+            assertThat(wrapped).isInstanceOf(ConnectionLimitingDataSource.class);
+            assertThat(((ConnectionLimitingDataSource) wrapped).getMaxRequests()).isEqualTo(32);
+            assertThat(postProcessor.postProcessAfterInitialization(wrapped, "dataSource")).isSameAs(wrapped);
+            assertThat(postProcessor.postProcessAfterInitialization("album", "album")).isEqualTo("album");
+
+            properties.setMaxRequests(5);
+
+            assertThat(VirtualThreadConfig.maxRequests(properties, dataSource)).isEqualTo(5);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package recordshop.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class HotStockConfigTest {
+
+    @Test
+    @DisplayName("constructor: should refuse hot-item mode when caches are shared with other instances")
+    public void testRejectsHotStockWithInvalidationBus() {
+        HotStockProperties hotStockProperties = new HotStockProperties();
+        hotStockProperties.setEnabled(true);
+        CacheProperties cacheProperties = new CacheProperties();
+
+        assertDoesNotThrow(() -> new HotStockConfig(hotStockProperties, cacheProperties));
+
+        cacheProperties.getInvalidation().setBus(CacheProperties.Invalidation.Bus.POSTGRES);
+
+        assertThrows(IllegalStateException.class, () -> new HotStockConfig(hotStockProperties, cacheProperties));
+    }
+}
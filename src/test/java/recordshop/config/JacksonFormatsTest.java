@@ -0,0 +1,60 @@
+package recordshop.config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.ArtistDTO;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class JacksonFormatsTest {
+
+    private final JacksonFormats jacksonFormats = new JacksonFormats(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    @Test
+    @DisplayName("negotiate: should default to JSON and pick the best accepted binary format")
+    public void testNegotiate() throws Exception {
+        assertThat(jacksonFormats.negotiate(null)).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(jacksonFormats.negotiate("*/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(jacksonFormats.negotiate("application/*")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(jacksonFormats.negotiate("application/cbor")).isEqualTo(MediaType.APPLICATION_CBOR);
+        assertThat(jacksonFormats.negotiate("*/*, application/x-jackson-smile")).isEqualTo(JacksonFormats.APPLICATION_SMILE);
+        assertThat(jacksonFormats.negotiate("application/cbor;q=0.5, application/json")).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(jacksonFormats.negotiate("application/json;q=0, */*")).isEqualTo(MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    @DisplayName("negotiate: should throw HttpMediaTypeNotAcceptableException when no format is accepted")
+    public void testNegotiateRejectsUnsupportedTypes() {
+        assertThrows(HttpMediaTypeNotAcceptableException.class, () -> jacksonFormats.negotiate("text/csv"));
+    }
+
+    @Test
+    @DisplayName("mapper: should round-trip albums in every format with the JSON mapper's configuration")
+    public void testMappersRoundTripAlbums() throws Exception {
+        LocalDateTime timestamp = LocalDateTime.of(2024, 5, 1, 12, 0);
+        AlbumDTO album = new AlbumDTO(1L, "album_name", new ArtistDTO(1L, "artist_name", timestamp, timestamp),
+                "Rock", null, 1999, 5, timestamp, timestamp, null);
+
+        for (MediaType mediaType : jacksonFormats.getMediaTypes()) {
+            ObjectMapper mapper = jacksonFormats.mapper(mediaType);
+
+            assertThat(mapper.readValue(mapper.writeValueAsBytes(album), AlbumDTO.class)).isEqualTo(album);
+            assertThat(mapper.readTree(mapper.writeValueAsBytes(album)).get("createdAt").isTextual()).isTrue();
+        }
+
+        assertThat(jacksonFormats.mapper(MediaType.parseMediaType("application/cbor;charset=UTF-8")))
+                .isSameAs(jacksonFormats.mapper(MediaType.APPLICATION_CBOR));
+        assertThrows(IllegalArgumentException.class, () -> jacksonFormats.mapper(MediaType.APPLICATION_XML));
+    }
+}
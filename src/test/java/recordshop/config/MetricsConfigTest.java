@@ -0,0 +1,59 @@
+package recordshop.config;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import recordshop.dto.AlbumFilter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class MetricsConfigTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private TimedAlbums timedAlbums;
+
+    @BeforeEach
+    public void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+
+        AspectJProxyFactory proxyFactory = new AspectJProxyFactory(new TimedAlbums());
+        proxyFactory.addAspect(new MetricsConfig().timedAspect(meterRegistry));
+        timedAlbums = proxyFactory.getProxy();
+    }
+
+    @Test
+    @DisplayName("timedAspect: should tag timers with the filter fields set on an AlbumFilter argument")
+    public void testTimedAspectTagsAlbumFilter() {
+        timedAlbums.list(new AlbumFilter("Rock", null, 1970, null, " "));
+
+        assertThat(meterRegistry.get("test.albums")
+                .tag("class", "TimedAlbums")
+                .tag("method", "list")
+                .tag("filter", "genre+releaseYearFrom")
+                .timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("timedAspect: should tag timers with the filter request parameters that were given")
+    public void testTimedAspectTagsFilterParameters() {
+        timedAlbums.search(null, 1999, "Artist", 20);
+        timedAlbums.search(" ", null, null, 20);
+
+        assertThat(meterRegistry.get("test.albums").tag("filter", "releaseYear+artistName").timer().count())
+                .isEqualTo(1);
+        assertThat(meterRegistry.get("test.albums").tag("filter", "none").timer().count()).isEqualTo(1);
+    }
+
+    @Timed("test.albums")
+    public static class TimedAlbums {
+
+        public void list(AlbumFilter filter) {
+        }
+
+        public void search(String genre, Integer releaseYear, String artistName, Integer limit) {
+        }
+    }
+}
@@ -1,45 +1,115 @@
 package recordshop.controller;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import recordshop.config.JacksonFormats;
 import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFacetsDTO;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumImportResultDTO;
 import recordshop.dto.ArtistDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+import recordshop.dto.StockReservationDTO;
+import recordshop.dto.FacetCountDTO;
+import recordshop.event.HotStockFlushedEvent;
 import recordshop.model.Album;
 import recordshop.model.Artist;
+import recordshop.repository.AlbumChangeRepository;
+import recordshop.repository.AlbumRepository;
+import recordshop.repository.ArtistRepository;
+import recordshop.service.AlbumExportFormat;
 import recordshop.service.AlbumServiceImpl;
+import recordshop.sql.SqlStatementCountConfig;
+import recordshop.sql.SqlStatements;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
+import static recordshop.sql.SqlStatements.assertDeleteCount;
+import static recordshop.sql.SqlStatements.assertInsertCount;
+import static recordshop.sql.SqlStatements.assertSelectCount;
+import static recordshop.sql.SqlStatements.assertStatementCount;
+import static recordshop.sql.SqlStatements.assertUpdateCount;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @AutoConfigureMockMvc
-@SpringBootTest
+@SpringBootTest(properties = "recordshop.changes.settle-time=0s")
+@Import(SqlStatementCountConfig.class)
 public class AlbumControllerTest {
     @Mock
     private AlbumServiceImpl mockAlbumServiceImpl;
 
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private JacksonFormats jacksonFormats = new JacksonFormats(objectMapper);
+
     @InjectMocks
     private AlbumController albumController;
 
     @Autowired
     private MockMvc mockMvcController;
 
+    @Autowired
+    private MockMvc applicationMockMvc;
+
+    @Autowired
+    private AlbumRepository albumRepository;
+
+    @Autowired
+    private ArtistRepository artistRepository;
+
+    @Autowired
+    private AlbumChangeRepository albumChangeRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
     private AlbumDTO albumDTO;
     private ArtistDTO artistDTO;
 
@@ -56,7 +126,8 @@ public class AlbumControllerTest {
                 2020,
                 88,
                 LocalDateTime.now(),
-                LocalDateTime.now());
+                LocalDateTime.now(),
+                0L);
 
         artistDTO = new ArtistDTO(artist.getId(),
                 artist.getName(),
@@ -71,18 +142,21 @@ public class AlbumControllerTest {
                 album.getReleaseYear(),
                 album.getStockQuantity(),
                 album.getCreatedAt(),
-                album.getModifiedAt());
+                album.getModifiedAt(),
+                null);
+
+        when(mockAlbumServiceImpl.getAlbumsValidator(any(), any(), any(), any())).thenReturn(new AlbumListValidatorDTO(0L, null));
     }
 
     @Test
     @DisplayName("GET /albums - returns all albums")
     public void testGetAllAlbumsReturnsAlbums() throws Exception {
         List<AlbumDTO> albumDTOList = new ArrayList<>();
-        albumDTOList.add(new AlbumDTO(1L, "album1", artistDTO, "Classic", "https://example.com/cover-art.webp", 2024, 1, LocalDateTime.now(), LocalDateTime.now()));
-        albumDTOList.add(new AlbumDTO(2L, "album2", artistDTO, "Blues","https://example.com/cover-art.webp", 1978, 2, LocalDateTime.now(), LocalDateTime.now()));
-        albumDTOList.add(new AlbumDTO(3L, "album3", artistDTO, "Electronic","https://example.com/cover-art.webp", 1997, 3, LocalDateTime.now(), LocalDateTime.now()));
+        albumDTOList.add(new AlbumDTO(1L, "album1", artistDTO, "Classic", "https://example.com/cover-art.webp", 2024, 1, LocalDateTime.now(), LocalDateTime.now(), 0L));
+        albumDTOList.add(new AlbumDTO(2L, "album2", artistDTO, "Blues","https://example.com/cover-art.webp", 1978, 2, LocalDateTime.now(), LocalDateTime.now(), 0L));
+        albumDTOList.add(new AlbumDTO(3L, "album3", artistDTO, "Electronic","https://example.com/cover-art.webp", 1997, 3, LocalDateTime.now(), LocalDateTime.now(), 0L));
 
-        when(mockAlbumServiceImpl.getAllAlbums(null, null, null)).thenReturn(albumDTOList);
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null, null, MediaType.APPLICATION_JSON)).thenReturn(encoded(albumDTOList, null));
 
         this.mockMvcController.perform(get("/albums"))
                 .andExpect(status().isOk())
@@ -94,13 +168,338 @@ public class AlbumControllerTest {
                 .andExpect(jsonPath("$[2].name").value("album3"));
     }
 
+    @Test
+    @DisplayName("GET /albums?genre=&releaseYearFrom=&releaseYearTo=&artist= - combines every filter")
+    public void testGetAllAlbumsCombinesFilters() throws Exception {
+        AlbumFilter filter = new AlbumFilter("Jazz", null, 1955, 1965, "artist_name");
+        when(mockAlbumServiceImpl.getEncodedAlbums(filter, null, null, null, MediaType.APPLICATION_JSON)).thenReturn(encoded(List.of(albumDTO), null));
+
+        this.mockMvcController.perform(get("/albums")
+                        .param("genre", "Jazz")
+                        .param("releaseYearFrom", "1955")
+                        .param("releaseYearTo", "1965")
+                        .param("artist", "artist_name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(mockAlbumServiceImpl, times(1)).getEncodedAlbums(filter, null, null, null, MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("GET /albums - answers 304 from the list validator without loading albums")
+    public void testGetAllAlbumsReturnsNotModifiedForMatchingValidator() throws Exception {
+        AlbumListValidatorDTO validator = new AlbumListValidatorDTO(3L, LocalDateTime.of(2024, 5, 1, 12, 0));
+        when(mockAlbumServiceImpl.getAlbumsValidator(new AlbumFilter(), null, null, null)).thenReturn(validator);
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null, null, MediaType.APPLICATION_JSON)).thenReturn(encoded(List.of(albumDTO), null));
+
+        String etag = this.mockMvcController.perform(get("/albums"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(etag).isEqualTo(AlbumController.listETag(validator, MediaType.APPLICATION_JSON, null, null, null)).startsWith("W/");
+
+        this.mockMvcController.perform(get("/albums").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(mockAlbumServiceImpl, times(1)).getEncodedAlbums(any(), any(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("GET /albums - validates list parameters before the validator and varies the ETag by projection and page")
+    public void testGetAllAlbumsValidatesParametersBeforeConditionalCheck() throws Exception {
+        saveAlbum("etag_first", "etag_artist", "Funk");
+        saveAlbum("etag_second", "etag_artist", "Funk");
+
+        String listETag = this.applicationMockMvc.perform(get("/albums"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        MvcResult firstPage = this.applicationMockMvc.perform(get("/albums").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String firstPageETag = firstPage.getResponse().getHeader(HttpHeaders.ETAG);
+        String secondPageETag = this.applicationMockMvc.perform(get("/albums")
+                        .param("limit", "1")
+                        .param("after", firstPage.getResponse().getHeader(AlbumController.NEXT_CURSOR_HEADER)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String fieldsETag = this.applicationMockMvc.perform(get("/albums").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(List.of(listETag, firstPageETag, secondPageETag, fieldsETag)).doesNotHaveDuplicates();
+
+        this.applicationMockMvc.perform(get("/albums").param("limit", "1").header(HttpHeaders.IF_NONE_MATCH, firstPageETag))
+                .andExpect(status().isNotModified());
+        this.applicationMockMvc.perform(get("/albums").param("limit", "0").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isBadRequest());
+        this.applicationMockMvc.perform(get("/albums").param("after", "not a cursor").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isBadRequest());
+        this.applicationMockMvc.perform(get("/albums").param("fields", "id,bogus").header(HttpHeaders.IF_NONE_MATCH, listETag))
+                .andExpect(status().isBadRequest());
+
+        albumRepository.deleteAll();
+        artistRepository.deleteAll();
+        albumChangeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("GET /albums/:id - returns a strong ETag and answers 304 when it matches")
+    public void testGetAlbumByIdSupportsConditionalRequests() throws Exception {
+        when(mockAlbumServiceImpl.getAlbumById(1L)).thenReturn(albumDTO);
+        String etag = AlbumController.albumETag(albumDTO, MediaType.APPLICATION_JSON, null);
+
+        this.mockMvcController.perform(get("/albums/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED));
+
+        this.mockMvcController.perform(get("/albums/1").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        verify(mockAlbumServiceImpl, times(1)).getAlbumBody(albumDTO, null, MediaType.APPLICATION_JSON);
+    }
+
+    @Test
+    @DisplayName("POST /albums/:id/reserve?qty= - reserves stock for one album")
+    public void testReserveAlbumReturnsUpdatedAlbum() throws Exception {
+        when(mockAlbumServiceImpl.reserveAlbum(1L, 2)).thenReturn(albumDTO);
+
+        this.mockMvcController.perform(post("/albums/1/reserve").param("qty", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(mockAlbumServiceImpl, times(1)).reserveAlbum(1L, 2);
+    }
+
+    @Test
+    @DisplayName("POST /albums/reserve - reserves stock for several albums at once")
+    public void testReserveAlbumsReturnsUpdatedAlbums() throws Exception {
+        List<StockReservationDTO> reservations = List.of(new StockReservationDTO(1L, 2), new StockReservationDTO(2L, 1));
+        when(mockAlbumServiceImpl.reserveAlbums(reservations)).thenReturn(List.of(albumDTO));
+
+        this.mockMvcController.perform(post("/albums/reserve")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(reservations)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    @DisplayName("PUT /albums/:id - checks If-Match against the stored version and answers 412 once it has moved on")
+    public void testUpdateAlbumByIdRejectsStaleIfMatch() throws Exception {
+        Album album = saveAlbum("etag_album", "etag_artist", "Jazz");
+        AlbumDTO first = new AlbumDTO(null, "etag_album", new ArtistDTO(null, "etag_artist", null, null),
+                "Jazz", null, 2001, 4, null, null, null);
+        AlbumDTO second = new AlbumDTO(null, "etag_album", new ArtistDTO(null, "etag_artist", null, null),
+                "Jazz", null, 2001, 3, null, null, null);
+        String eTag = this.applicationMockMvc.perform(get("/albums/" + album.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        String updatedETag = this.applicationMockMvc.perform(put("/albums/" + album.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(first)))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        this.applicationMockMvc.perform(put("/albums/" + album.getId())
+                        .header(HttpHeaders.IF_MATCH, eTag)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(second)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+
+        assertThat(updatedETag).isNotEqualTo(eTag);
+        assertThat(albumRepository.findById(album.getId())).get().extracting(Album::getStockQuantity).isEqualTo(4);
+    }
+
+    @Test
+    @DisplayName("DELETE /albums/:id - answers 412 for a stale If-Match and deletes when it matches the stored version")
+    public void testDeleteAlbumByIdAcceptsMatchingIfMatch() throws Exception {
+        Album album = saveAlbum("etag_album", "etag_artist", "Jazz");
+        String eTag = this.applicationMockMvc.perform(get("/albums/" + album.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.applicationMockMvc.perform(post("/albums/" + album.getId() + "/reserve")).andExpect(status().isOk());
+        this.applicationMockMvc.perform(delete("/albums/" + album.getId()).header(HttpHeaders.IF_MATCH, eTag))
+                .andExpect(status().isPreconditionFailed());
+
+        assertThat(albumRepository.existsById(album.getId())).isTrue();
+
+        String currentETag = this.applicationMockMvc.perform(get("/albums/" + album.getId()))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        this.applicationMockMvc.perform(delete("/albums/" + album.getId()).header(HttpHeaders.IF_MATCH, currentETag))
+                .andExpect(status().isNoContent());
+
+        assertThat(albumRepository.existsById(album.getId())).isFalse();
+    }
+
+    @Test
+    @DisplayName("GET /albums/facets?genre= - returns facet counts for the filter")
+    public void testGetAlbumFacetsReturnsCounts() throws Exception {
+        AlbumFilter filter = new AlbumFilter("Rock", null, null, null, null);
+        AlbumFacetsDTO facets = new AlbumFacetsDTO(
+                List.of(new FacetCountDTO<>("Rock", 2L, 15L)),
+                List.of(new FacetCountDTO<>(1999, 2L, 15L)),
+                List.of(new FacetCountDTO<>(1990, 2L, 15L)),
+                List.of(new FacetCountDTO<>("artist_name", 2L, 15L)));
+        when(mockAlbumServiceImpl.getAlbumFacets(filter)).thenReturn(facets);
+
+        this.mockMvcController.perform(get("/albums/facets").param("genre", "Rock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.genres[0].value").value("Rock"))
+                .andExpect(jsonPath("$.genres[0].count").value(2))
+                .andExpect(jsonPath("$.decades[0].value").value(1990))
+                .andExpect(jsonPath("$.artists[0].stockQuantity").value(15));
+    }
+
+    @Test
+    @DisplayName("GET /albums/search?q= - returns ranked search results")
+    public void testSearchAlbumsReturnsResults() throws Exception {
+        when(mockAlbumServiceImpl.searchAlbums("album", 5)).thenReturn(List.of(albumDTO));
+
+        this.mockMvcController.perform(get("/albums/search").param("q", "album").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1));
+
+        verify(mockAlbumServiceImpl, times(1)).searchAlbums("album", 5);
+    }
+
+    @Test
+    @DisplayName("GET /albums?limit= - returns a page of albums and the next cursor header")
+    public void testGetAllAlbumsWithLimitReturnsPage() throws Exception {
+        List<AlbumDTO> albumDTOList = List.of(albumDTO);
+
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, 1, null, MediaType.APPLICATION_JSON)).thenReturn(encoded(albumDTOList, "next"));
+
+        this.mockMvcController.perform(get("/albums").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Next-Cursor", "next"))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /albums?after= - omits the next cursor header on the last page")
+    public void testGetAllAlbumsOnLastPageOmitsCursor() throws Exception {
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null, "cursor", MediaType.APPLICATION_JSON)).thenReturn(encoded(List.of(albumDTO), null));
+
+        this.mockMvcController.perform(get("/albums").param("after", "cursor"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("X-Next-Cursor"))
+                .andExpect(jsonPath("$[0].id").value(1));
+    }
+
+    @Test
+    @DisplayName("GET /albums - serves a stored gzip body as-is to clients that accept gzip")
+    public void testGetAllAlbumsServesStoredGzipBody() throws Exception {
+        byte[] gzipped = gzip(toJSON(List.of(albumDTO)).getBytes(StandardCharsets.UTF_8));
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null, null, MediaType.APPLICATION_JSON))
+                .thenReturn(new EncodedAlbumListDTO(gzipped, true, null));
+
+        this.mockMvcController.perform(get("/albums").header(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0.8"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().bytes(gzipped));
+    }
+
+    @Test
+    @DisplayName("GET /albums - decompresses a stored gzip body for clients that do not accept gzip")
+    public void testGetAllAlbumsDecompressesForIdentityClients() throws Exception {
+        byte[] gzipped = gzip(toJSON(List.of(albumDTO)).getBytes(StandardCharsets.UTF_8));
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null, null, MediaType.APPLICATION_JSON))
+                .thenReturn(new EncodedAlbumListDTO(gzipped, true, null));
+
+        this.mockMvcController.perform(get("/albums").header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, identity"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("album_name"));
+    }
+
+    @Test
+    @DisplayName("GET /albums/:id - gives every media type and field set its own ETag")
+    public void testGetAlbumByIdETagPerVariant() throws Exception {
+        when(mockAlbumServiceImpl.getAlbumById(1L)).thenReturn(albumDTO);
+        when(mockAlbumServiceImpl.getAlbumById(1L, "id,name")).thenReturn(albumDTO);
+        String jsonETag = AlbumController.albumETag(albumDTO, MediaType.APPLICATION_JSON, null);
+
+        String cborETag = this.mockMvcController.perform(get("/albums/1")
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        String fieldsETag = this.mockMvcController.perform(get("/albums/1")
+                        .param("fields", "id,name")
+                        .header(HttpHeaders.IF_NONE_MATCH, jsonETag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        assertThat(cborETag).isEqualTo(AlbumController.albumETag(albumDTO, MediaType.APPLICATION_CBOR, null));
+        assertThat(fieldsETag).isEqualTo(AlbumController.albumETag(albumDTO, MediaType.APPLICATION_JSON, "name,id"));
+        assertThat(List.of(jsonETag, cborETag, fieldsETag)).doesNotHaveDuplicates();
+        assertThat(AlbumController.listETag(new AlbumListValidatorDTO(3L, null), MediaType.APPLICATION_JSON, null, null, null))
+                .isNotEqualTo(AlbumController.listETag(new AlbumListValidatorDTO(3L, null), JacksonFormats.APPLICATION_SMILE,
+                        null, null, null));
+    }
+
+    @Test
+    @DisplayName("GET /albums/:id?fields= - loads and renders only the requested fields")
+    public void testGetAlbumByIdWithFields() throws Exception {
+        when(mockAlbumServiceImpl.getAlbumById(1L, "id,name")).thenReturn(albumDTO);
+        when(mockAlbumServiceImpl.getAlbumBody(albumDTO, "id,name", MediaType.APPLICATION_JSON))
+                .thenReturn("{\"id\":1,\"name\":\"album_name\"}".getBytes(StandardCharsets.UTF_8));
+
+        this.mockMvcController.perform(get("/albums/1").param("fields", "id,name"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, AlbumController.albumETag(albumDTO, MediaType.APPLICATION_JSON, "name, id")))
+                .andExpect(jsonPath("$.name").value("album_name"))
+                .andExpect(jsonPath("$.genre").doesNotExist());
+
+        verify(mockAlbumServiceImpl, never()).getAlbumById(1L);
+    }
+
+    @Test
+    @DisplayName("acceptsGzip - honours codings, wildcards and q=0")
+    public void testAcceptsGzip() {
+        assertThat(AlbumController.acceptsGzip("gzip, deflate, br")).isTrue();
+        assertThat(AlbumController.acceptsGzip("GZIP;q=0.5")).isTrue();
+        assertThat(AlbumController.acceptsGzip("*")).isTrue();
+        assertThat(AlbumController.acceptsGzip("gzip;q=0.000")).isFalse();
+        assertThat(AlbumController.acceptsGzip("identity")).isFalse();
+        assertThat(AlbumController.acceptsGzip(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("GET /albums/export?format=csv - streams the catalog as a CSV attachment")
+    public void testExportAlbumsStreamsCsv() throws Exception {
+        this.mockMvcController.perform(get("/albums/export").param("format", "csv"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"albums.csv\""));
+
+        verify(mockAlbumServiceImpl, times(1)).exportAlbums(eq(AlbumExportFormat.CSV), any());
+    }
+
     @Test
     @DisplayName("GET /albums/:id - returns album")
     public void testGetAlbumByIdReturnsAlbum() throws Exception {
         when(mockAlbumServiceImpl.getAlbumById(1L)).thenReturn(albumDTO);
+        when(mockAlbumServiceImpl.getAlbumBody(albumDTO, null, MediaType.APPLICATION_JSON))
+                .thenReturn(toJSON(albumDTO).getBytes(StandardCharsets.UTF_8));
 
         this.mockMvcController.perform(get("/albums/1"))
                 .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("album_name"))
                 .andExpect(jsonPath("$.genre").value("Electronic"))
@@ -126,10 +525,117 @@ public class AlbumControllerTest {
                 .andExpect(jsonPath("$.stockQuantity").value(88));
     }
 
+    @Test
+    @DisplayName("POST /albums - should not leave a new artist behind when the album insert fails")
+    public void testAddAlbumRollsBackNewArtistWhenAlbumInsertFails() {
+        AlbumDTO newAlbum = new AlbumDTO(null, "orphan_album", new ArtistDTO(null, "orphan_artist", null, null),
+                "Ambient", "https://example.com/" + "a".repeat(300), 2001, 5, null, null, null);
+        long albums = albumRepository.count();
+
+        assertThatThrownBy(() -> this.applicationMockMvc.perform(post("/albums")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(toJSON(newAlbum))))
+                .hasRootCauseInstanceOf(SQLException.class);
+
+        assertThat(artistRepository.findByName("orphan_artist")).isNull();
+        assertThat(albumRepository.count()).isEqualTo(albums);
+    }
+
+    @Test
+    @DisplayName("POST /albums/batch - should import a JSON array and return per-row results")
+    public void testImportAlbumsFromJsonArray() throws Exception {
+        List<AlbumDTO> received = new ArrayList<>();
+        when(mockAlbumServiceImpl.importAlbums(any())).thenAnswer(invocation -> {
+            Iterator<AlbumDTO> albums = invocation.getArgument(0);
+            albums.forEachRemaining(received::add);
+            return List.of(new AlbumImportResultDTO(0, AlbumImportResultDTO.Status.CREATED, 1L, null),
+                    new AlbumImportResultDTO(1, AlbumImportResultDTO.Status.CREATED, 2L, null));
+        });
+
+        this.mockMvcController.perform(post("/albums/batch")
+                                .contentType(MediaType.APPLICATION_JSON)
+                                .content(toJSON(List.of(albumDTO, albumDTO))))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].id").value(2));
+
+        assertThat(received).containsExactly(albumDTO, albumDTO);
+    }
+
+    @Test
+    @DisplayName("POST /albums/batch - should import newline-delimited JSON")
+    public void testImportAlbumsFromNdjson() throws Exception {
+        List<AlbumDTO> received = new ArrayList<>();
+        when(mockAlbumServiceImpl.importAlbums(any())).thenAnswer(invocation -> {
+            Iterator<AlbumDTO> albums = invocation.getArgument(0);
+            albums.forEachRemaining(received::add);
+            return List.of();
+        });
+        String ndjson = objectMapper.writeValueAsString(albumDTO) + "\n" + objectMapper.writeValueAsString(albumDTO) + "\n";
+
+        this.mockMvcController.perform(post("/albums/batch")
+                                .contentType("application/x-ndjson")
+                                .content(ndjson))
+                .andExpect(status().isOk());
+
+        assertThat(received).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("POST /albums/batch - keeps the rows before a malformed line and reports it as rejected")
+    public void testImportAlbumsReportsMalformedRow() throws Exception {
+        AlbumDTO importedAlbum = new AlbumDTO(null, "imported_album", new ArtistDTO(null, "imported_artist", null, null),
+                "Jazz", null, 1959, 5, null, null, null);
+        String ndjson = objectMapper.writeValueAsString(importedAlbum) + "\n{\"name\": \n";
+
+        this.applicationMockMvc.perform(post("/albums/batch")
+                                .contentType("application/x-ndjson")
+                                .content(ndjson))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].status").value("CREATED"))
+                .andExpect(jsonPath("$[1].index").value(1))
+                .andExpect(jsonPath("$[1].status").value("REJECTED"));
+
+        assertThat(albumRepository.findAll()).extracting(Album::getName).contains("imported_album");
+    }
+
+    @Test
+    @DisplayName("POST /albums/batch - should import a CBOR array")
+    public void testImportAlbumsFromCbor() throws Exception {
+        List<AlbumDTO> received = new ArrayList<>();
+        when(mockAlbumServiceImpl.importAlbums(any())).thenAnswer(invocation -> {
+            Iterator<AlbumDTO> albums = invocation.getArgument(0);
+            albums.forEachRemaining(received::add);
+            return List.of();
+        });
+        byte[] cbor = jacksonFormats.mapper(MediaType.APPLICATION_CBOR).writeValueAsBytes(List.of(albumDTO, albumDTO));
+
+        this.mockMvcController.perform(post("/albums/batch")
+                                .contentType(MediaType.APPLICATION_CBOR)
+                                .content(cbor))
+                .andExpect(status().isOk());
+
+        assertThat(received).containsExactly(albumDTO, albumDTO);
+    }
+
+    @Test
+    @DisplayName("GET /albums - encodes the list in the negotiated binary format")
+    public void testGetAllAlbumsNegotiatesBinaryFormat() throws Exception {
+        byte[] smile = jacksonFormats.mapper(JacksonFormats.APPLICATION_SMILE).writeValueAsBytes(List.of(albumDTO));
+        when(mockAlbumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null, null, JacksonFormats.APPLICATION_SMILE))
+                .thenReturn(new EncodedAlbumListDTO(smile, false, null));
+
+        this.mockMvcController.perform(get("/albums").accept("application/json;q=0.5, application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(JacksonFormats.APPLICATION_SMILE))
+                .andExpect(header().string(HttpHeaders.VARY, "Accept, Accept-Encoding"))
+                .andExpect(content().bytes(smile));
+    }
+
     @Test
     @DisplayName("PUT /albums/:id - should return updated album")
     public void testUpdateAlbumByIdReturnsUpdatedAlbum() throws Exception {
-        when(mockAlbumServiceImpl.updateAlbumById(eq(1L), any(AlbumDTO.class))).thenReturn(albumDTO);
+        when(mockAlbumServiceImpl.updateAlbumById(eq(1L), any(AlbumDTO.class), any())).thenReturn(albumDTO);
 
         this.mockMvcController.perform(put("/albums/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -146,12 +652,282 @@ public class AlbumControllerTest {
     @Test
     @DisplayName("DELETE /albums/:id - should return string stating album was deleted")
     public void testDeleteAlbumById() throws Exception {
-        doNothing().when(mockAlbumServiceImpl).deleteAlbumById(1L);
+        doNothing().when(mockAlbumServiceImpl).deleteAlbumById(eq(1L), any());
 
         this.mockMvcController.perform(delete("/albums/1"))
                 .andExpect(status().isNoContent());
     }
 
+    @Test
+    @DisplayName("GET /albums/:id - should load an album and its artist in one statement and answer repeats from the cache")
+    public void testGetAlbumByIdStatementCount() throws Exception {
+        Album album = saveAlbum("sql_album", "sql_artist", "Ambient");
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(get("/albums/" + album.getId())).andExpect(status().isOk());
+
+        assertSelectCount(1);
+        assertStatementCount(1);
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(get("/albums/" + album.getId())).andExpect(status().isOk());
+
+        assertStatementCount(0);
+    }
+
+    @Test
+    @DisplayName("GET /albums?fields=, GET /albums/:id?fields= - should return and select only the requested fields")
+    public void testSparseFieldsets() throws Exception {
+        Album album = saveAlbum("sql_album", "sql_artist", "Ambient");
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(get("/albums").param("fields", "id,name,artist.name"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(album.getId()))
+                .andExpect(jsonPath("$[0].name").value("sql_album"))
+                .andExpect(jsonPath("$[0].artist.name").value("sql_artist"))
+                .andExpect(jsonPath("$[0].artist.id").doesNotExist())
+                .andExpect(jsonPath("$[0].genre").doesNotExist())
+                .andExpect(jsonPath("$[0].createdAt").doesNotExist());
+
+        assertThat(SqlStatements.recorded().getLast().toLowerCase()).doesNotContain("genre", "cover_art_url");
+
+        this.applicationMockMvc.perform(get("/albums/" + album.getId()).param("fields", "genre"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists(HttpHeaders.ETAG))
+                .andExpect(jsonPath("$.genre").value("Ambient"))
+                .andExpect(jsonPath("$.id").doesNotExist())
+                .andExpect(jsonPath("$.artist").doesNotExist());
+
+        this.applicationMockMvc.perform(get("/albums").param("fields", "id,label"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("POST /albums, GET /albums, GET /albums/:id - should accept and return CBOR and Smile, keeping JSON the default")
+    public void testBinaryFormats() throws Exception {
+        ObjectMapper cborMapper = jacksonFormats.mapper(MediaType.APPLICATION_CBOR);
+        ObjectMapper smileMapper = jacksonFormats.mapper(JacksonFormats.APPLICATION_SMILE);
+        AlbumDTO newAlbum = new AlbumDTO(null, "cbor_album", new ArtistDTO(null, "cbor_artist", null, null),
+                "Ambient", null, 2001, 5, null, null, null);
+
+        byte[] created = this.applicationMockMvc.perform(post("/albums")
+                        .contentType(MediaType.APPLICATION_CBOR)
+                        .accept(MediaType.APPLICATION_CBOR)
+                        .content(cborMapper.writeValueAsBytes(newAlbum)))
+                .andExpect(status().isCreated())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+        AlbumDTO createdAlbum = cborMapper.readValue(created, AlbumDTO.class);
+
+        byte[] fetched = this.applicationMockMvc.perform(get("/albums/" + createdAlbum.getId())
+                        .accept(JacksonFormats.APPLICATION_SMILE))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(JacksonFormats.APPLICATION_SMILE))
+                .andReturn().getResponse().getContentAsByteArray();
+        byte[] listed = this.applicationMockMvc.perform(get("/albums").accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andReturn().getResponse().getContentAsByteArray();
+
+        assertThat(smileMapper.readValue(fetched, AlbumDTO.class)).isEqualTo(createdAlbum);
+        assertThat(cborMapper.readValue(listed, AlbumDTO[].class)).containsExactly(createdAlbum);
+
+        this.applicationMockMvc.perform(get("/albums/" + createdAlbum.getId()))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.name").value("cbor_album"));
+        this.applicationMockMvc.perform(get("/albums").accept("text/csv"))
+                .andExpect(status().isNotAcceptable());
+    }
+
+    @Test
+    @DisplayName("GET /albums, GET /albums/facets - should issue a fixed number of statements however many artists match, reusing the cached list validator")
+    public void testListAndFacetsStatementCount() throws Exception {
+        for (int i = 0; i < 5; i++) {
+            saveAlbum("sql_album" + i, "sql_artist" + i, "Ambient");
+        }
+
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(get("/albums").param("genre", "Ambient"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5));
+
+        assertSelectCount(2);
+        assertStatementCount(2);
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(get("/albums").param("genre", "Ambient").param("limit", "2"))
+                .andExpect(status().isOk());
+        this.applicationMockMvc.perform(get("/albums/facets").param("genre", "Ambient"))
+                .andExpect(status().isOk());
+
+        assertSelectCount(1 + 3);
+        assertStatementCount(1 + 3);
+    }
+
+    @Test
+    @DisplayName("PUT, DELETE /albums/:id, POST /albums/:id/reserve - should add only the change log insert to writes (PUT resolves an uncached artist by name)")
+    public void testWriteStatementCount() throws Exception {
+        Album album = saveAlbum("sql_album", "sql_artist", "Ambient");
+        Album other = saveAlbum("sql_other", "sql_artist", "Ambient");
+        AlbumDTO update = new AlbumDTO(null, "sql_album", new ArtistDTO(null, "sql_artist", null, null),
+                "Ambient", null, 2001, 9, null, null, null);
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(put("/albums/" + album.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(update)))
+                .andExpect(status().isOk());
+
+        assertSelectCount(2);
+        assertUpdateCount(1);
+        assertInsertCount(1);
+        assertStatementCount(4);
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(post("/albums/" + album.getId() + "/reserve").param("qty", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.stockQuantity").value(7));
+
+        assertUpdateCount(1);
+        assertSelectCount(1);
+        assertInsertCount(1);
+        assertStatementCount(3);
+        SqlStatements.reset();
+
+        this.applicationMockMvc.perform(delete("/albums/" + other.getId())).andExpect(status().isNoContent());
+
+        assertSelectCount(1);
+        assertDeleteCount(1);
+        assertInsertCount(1);
+        assertStatementCount(3);
+    }
+
+    @Test
+    @DisplayName("GET /albums/changes - should page upserts and delete tombstones since a token and hand out the next token")
+    public void testGetAlbumChanges() throws Exception {
+        Album kept = saveAlbum("changes_kept", "changes_artist", "Ambient");
+        Album removed = saveAlbum("changes_removed", "changes_artist", "Ambient");
+        AlbumDTO update = new AlbumDTO(null, "changes_kept", new ArtistDTO(null, "changes_artist", null, null),
+                "Ambient", null, 2001, 9, null, null, null);
+        AlbumDTO added = new AlbumDTO(null, "changes_added", new ArtistDTO(null, "changes_artist", null, null),
+                "Ambient", null, 2002, 3, null, null, null);
+
+        String token = changes(get("/albums/changes")).get("nextToken").asText();
+
+        this.applicationMockMvc.perform(put("/albums/" + kept.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(update)))
+                .andExpect(status().isOk());
+        this.applicationMockMvc.perform(delete("/albums/" + removed.getId())).andExpect(status().isNoContent());
+        this.applicationMockMvc.perform(post("/albums")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(toJSON(added)))
+                .andExpect(status().isCreated());
+
+        JsonNode firstPage = changes(get("/albums/changes").param("since", token).param("limit", "2"));
+
+        assertThat(firstPage.get("upserted")).hasSize(1);
+        assertThat(firstPage.get("upserted").get(0).get("id").asLong()).isEqualTo(kept.getId());
+        assertThat(firstPage.get("upserted").get(0).get("stockQuantity").asInt()).isEqualTo(9);
+        assertThat(firstPage.get("deleted").get(0).asLong()).isEqualTo(removed.getId());
+        assertThat(firstPage.get("hasMore").asBoolean()).isTrue();
+
+        JsonNode secondPage = changes(get("/albums/changes")
+                .param("since", firstPage.get("nextToken").asText())
+                .param("limit", "2"));
+
+        assertThat(secondPage.get("upserted").get(0).get("name").asText()).isEqualTo("changes_added");
+        assertThat(secondPage.get("deleted")).isEmpty();
+        assertThat(secondPage.get("hasMore").asBoolean()).isFalse();
+
+        JsonNode caughtUp = changes(get("/albums/changes").param("since", secondPage.get("nextToken").asText()));
+
+        assertThat(caughtUp.get("upserted")).isEmpty();
+        assertThat(caughtUp.get("deleted")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("GET /albums/changes - should respond 410 for a token older than the retention window and 400 for a malformed one")
+    public void testGetAlbumChangesRejectsExpiredAndMalformedTokens() throws Exception {
+        String expired = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("seq:1@0".getBytes(StandardCharsets.UTF_8));
+
+        this.applicationMockMvc.perform(get("/albums/changes").param("since", expired))
+                .andExpect(status().isGone());
+        this.applicationMockMvc.perform(get("/albums/changes").param("since", "not-a-token"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @AfterEach
+    public void cleanUp() {
+        albumRepository.deleteAll();
+        artistRepository.deleteAll();
+        albumChangeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    @DisplayName("onHotStockFlushed - should only refresh the albums cache once the flush transaction has committed")
+    public void testHotStockFlushRefreshesCacheAfterCommit() {
+        Album album = saveAlbum("flushed_album", "flushed_artist", "Jazz");
+        Cache albumsCache = cacheManager.getCache("albums");
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new HotStockFlushedEvent(Set.of(album.getId())));
+            status.setRollbackOnly();
+        });
+
+        assertThat(albumsCache.get(album.getId())).isNull();
+
+        transactionTemplate.executeWithoutResult(status -> {
+            eventPublisher.publishEvent(new HotStockFlushedEvent(Set.of(album.getId())));
+            assertThat(albumsCache.get(album.getId())).isNull();
+        });
+
+        assertThat(albumsCache.get(album.getId(), AlbumDTO.class)).hasFieldOrPropertyWithValue("name", "flushed_album");
+
+        albumRepository.deleteAll();
+        artistRepository.deleteAll();
+        albumChangeRepository.deleteAll();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    private Album saveAlbum(String name, String artistName, String genre) {
+        Artist artist = artistRepository.findByName(artistName);
+
+        if (artist == null) {
+            artist = artistRepository.save(new Artist(null, artistName, null, null, null));
+        }
+
+        return albumRepository.save(new Album(null, name, artist, genre, null, 2001, 5, null, null, null));
+    }
+
+    private JsonNode changes(MockHttpServletRequestBuilder request) throws Exception {
+        byte[] body = this.applicationMockMvc.perform(request)
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsByteArray();
+
+        return objectMapper.readTree(body);
+    }
+
+    private EncodedAlbumListDTO encoded(List<AlbumDTO> albums, String nextCursor) {
+        return new EncodedAlbumListDTO(toJSON(albums).getBytes(StandardCharsets.UTF_8), false, nextCursor);
+    }
+
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(body);
+        }
+
+        return compressed.toByteArray();
+    }
+
     private String toJSON(Object obj) {
         try {
             ObjectMapper mapper = new ObjectMapper();
@@ -0,0 +1,74 @@
+package recordshop.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.transaction.TestTransaction;
+import recordshop.changes.AlbumChangeLog;
+import recordshop.config.ChangeFeedConfig;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.model.AlbumChange;
+import recordshop.model.AlbumChangeType;
+
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import({ChangeFeedConfig.class, AlbumChangeLog.class})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class AlbumChangeRepositoryTest {
+
+    @Autowired
+    private AlbumChangeRepository albumChangeRepository;
+
+    @Autowired
+    private AlbumChangeLog albumChangeLog;
+
+    private final LocalDateTime cutoff = LocalDateTime.now().minusDays(7);
+
+    @BeforeEach
+    public void setUp() {
+        for (long albumId = 1; albumId <= 3; albumId++) {
+            albumChangeRepository.save(new AlbumChange(null, albumId, AlbumChangeType.UPSERT, cutoff.minusHours(albumId)));
+        }
+
+        albumChangeRepository.save(new AlbumChange(null, 4L, AlbumChangeType.DELETE, cutoff.plusHours(1)));
+    }
+
+    @Test
+    @DisplayName("deleteChangedBefore: should delete at most the given number of changes older than the cutoff")
+    public void testDeleteChangedBeforeDeletesInBatches() {
+        assertThat(albumChangeRepository.deleteChangedBefore(cutoff, 2)).isEqualTo(2);
+        assertThat(albumChangeRepository.deleteChangedBefore(cutoff, 2)).isEqualTo(1);
+        assertThat(albumChangeRepository.deleteChangedBefore(cutoff, 2)).isZero();
+
+        assertThat(albumChangeRepository.findAll()).extracting(AlbumChange::getAlbumId).containsExactly(4L);
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should stamp changes with the time they are written, not when their transaction started")
+    public void testChangesAreStampedAtCommitTime() throws InterruptedException {
+        LocalDateTime transactionStart = albumChangeRepository.findDatabaseTime();
+        Thread.sleep(50);
+        LocalDateTime writtenAfter = LocalDateTime.now().minusNanos(1_000_000);
+
+        albumChangeLog.onAlbumChanged(new AlbumChangedEvent(5L, null, null));
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(albumChangeRepository.findByIdGreaterThanOrderById(0L, Limit.unlimited()))
+                .filteredOn(change -> change.getAlbumId().equals(5L))
+                .singleElement()
+                .satisfies(change -> assertThat(change.getChangedAt()).isAfterOrEqualTo(writtenAfter)
+                        .isAfter(transactionStart));
+    }
+}
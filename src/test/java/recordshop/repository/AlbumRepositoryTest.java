@@ -2,22 +2,41 @@ package recordshop.repository;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
+import org.hibernate.Hibernate;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.context.annotation.Import;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumView;
+import recordshop.dto.FacetCountDTO;
 import recordshop.model.Album;
 import recordshop.model.Artist;
+import recordshop.sql.SqlStatementCountConfig;
+import recordshop.sql.SqlStatements;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static recordshop.sql.SqlStatements.assertSelectCount;
+import static recordshop.sql.SqlStatements.assertStatementCount;
+import static recordshop.sql.SqlStatements.assertUpdateCount;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @DataJpaTest
 @AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@Import(SqlStatementCountConfig.class)
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class AlbumRepositoryTest {
 
@@ -27,6 +46,9 @@ public class AlbumRepositoryTest {
     @Autowired
     private ArtistRepository artistRepository;
 
+    @Autowired
+    private TestEntityManager entityManager;
+
     private Album album1;
     private Album album2;
 
@@ -43,7 +65,8 @@ public class AlbumRepositoryTest {
             1999,
             12,
             LocalDateTime.now(),
-            LocalDateTime.now());
+            LocalDateTime.now(),
+            null);
 
         Album albumToSave2 = new Album(null,
                 "album_name2",
@@ -53,7 +76,8 @@ public class AlbumRepositoryTest {
                 2020,
                 88,
                 LocalDateTime.now(),
-                LocalDateTime.now());
+                LocalDateTime.now(),
+                null);
 
         album1 = albumRepository.save(albumToSave1);
         album2 = albumRepository.save(albumToSave2);
@@ -89,4 +113,227 @@ public class AlbumRepositoryTest {
         assertThat(foundAlbums).extracting(Album::getName)
                 .containsExactlyInAnyOrder("album_name1", "album_name2");
     }
+
+    @Test
+    @DisplayName("findViews: should project every album and its artist in id order when unfiltered")
+    public void testFindViewsProjectsAlbumsWithArtist() {
+        List<AlbumView> foundAlbums = albumRepository.findViews(new AlbumFilter(), null, null);
+
+        assertThat(foundAlbums).extracting(AlbumView::getId).containsExactly(album1.getId(), album2.getId());
+        assertThat(foundAlbums).extracting(AlbumView::getArtistName).containsOnly("John Doe");
+        assertThat(foundAlbums.getFirst()).hasFieldOrPropertyWithValue("genre", "Electronic");
+        assertThat(foundAlbums.getFirst()).hasFieldOrPropertyWithValue("stockQuantity", 12);
+    }
+
+    @Test
+    @DisplayName("findViews: should apply every supplied filter together")
+    public void testFindViewsCombinesFilters() {
+        List<AlbumView> rockBy2020 = albumRepository.findViews(new AlbumFilter("Rock", 2020, null, null, "John Doe"), null, null);
+        List<AlbumView> rockIn1999 = albumRepository.findViews(new AlbumFilter("Rock", 1999, null, null, null), null, null);
+
+        assertThat(rockBy2020).extracting(AlbumView::getId).containsExactly(album2.getId());
+        assertThat(rockIn1999).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findViews: should filter by an inclusive release year range")
+    public void testFindViewsFiltersByYearRange() {
+        List<AlbumView> nineties = albumRepository.findViews(new AlbumFilter(null, null, 1990, 1999, null), null, null);
+        List<AlbumView> since1999 = albumRepository.findViews(new AlbumFilter(null, null, 1999, null, null), null, null);
+
+        assertThat(nineties).extracting(AlbumView::getId).containsExactly(album1.getId());
+        assertThat(since1999).extracting(AlbumView::getId).containsExactly(album1.getId(), album2.getId());
+    }
+
+    @Test
+    @DisplayName("findViews: should seek past the given id in id order")
+    public void testFindViewsSeeksPastId() {
+        List<AlbumView> firstPage = albumRepository.findViews(new AlbumFilter(), 0L, 1);
+        List<AlbumView> secondPage = albumRepository.findViews(new AlbumFilter(), firstPage.getLast().getId(), 1);
+        List<AlbumView> afterLastRock = albumRepository.findViews(new AlbumFilter("Rock", null, null, null, null), album2.getId(), 10);
+
+        assertThat(firstPage).extracting(AlbumView::getId).containsExactly(album1.getId());
+        assertThat(secondPage).extracting(AlbumView::getId).containsExactly(album2.getId());
+        assertThat(afterLastRock).isEmpty();
+    }
+
+    @Test
+    @DisplayName("findViewsByIds: should project only the requested albums")
+    public void testFindViewsByIdsReturnsRequestedAlbums() {
+        List<AlbumView> found = albumRepository.findViewsByIds(List.of(album2.getId(), -1L));
+
+        assertThat(found).extracting(AlbumView::getId).containsExactly(album2.getId());
+        assertThat(found.getFirst().getArtistName()).isEqualTo("John Doe");
+        assertThat(albumRepository.findViewsByIds(List.of())).isEmpty();
+    }
+
+    @Test
+    @DisplayName("countByGenre, countByReleaseYear, countByArtist: should group counts and stock by facet")
+    public void testCountByFacetGroupsCountsAndStock() {
+        List<FacetCountDTO<String>> genres = albumRepository.countByGenre(new AlbumFilter());
+        List<FacetCountDTO<Integer>> releaseYears = albumRepository.countByReleaseYear(new AlbumFilter());
+        List<FacetCountDTO<String>> artists = albumRepository.countByArtist(new AlbumFilter(), 10);
+
+        assertThat(genres).containsExactly(new FacetCountDTO<>("Electronic", 1L, 12L), new FacetCountDTO<>("Rock", 1L, 88L));
+        assertThat(releaseYears).containsExactly(new FacetCountDTO<>(1999, 1L, 12L), new FacetCountDTO<>(2020, 1L, 88L));
+        assertThat(artists).containsExactly(new FacetCountDTO<>("John Doe", 2L, 100L));
+    }
+
+    @Test
+    @DisplayName("countByGenre: should only count albums matching the filter")
+    public void testCountByGenreAppliesFilter() {
+        List<FacetCountDTO<String>> genres = albumRepository.countByGenre(new AlbumFilter(null, null, 2000, null, "John Doe"));
+
+        assertThat(genres).containsExactly(new FacetCountDTO<>("Rock", 1L, 88L));
+    }
+
+    @Test
+    @DisplayName("findListValidator: should return the row count and latest modification of matching albums")
+    public void testFindListValidatorSummarizesMatchingAlbums() {
+        AlbumListValidatorDTO all = albumRepository.findListValidator(new AlbumFilter());
+        AlbumListValidatorDTO none = albumRepository.findListValidator(new AlbumFilter("Jazz", null, null, null, null));
+
+        assertThat(all.getCount()).isEqualTo(2L);
+        assertThat(all.getLastModified()).isNotNull();
+        assertThat(none).isEqualTo(new AlbumListValidatorDTO(0L, null));
+    }
+
+    @Test
+    @DisplayName("reserveStock: should decrement stock only when enough is available")
+    public void testReserveStockIsConditional() {
+        int reserved = albumRepository.reserveStock(album1.getId(), 5, LocalDateTime.now());
+        int rejected = albumRepository.reserveStock(album1.getId(), 8, LocalDateTime.now());
+        Album reloaded = albumRepository.findById(album1.getId()).orElseThrow();
+
+        assertThat(reserved).isEqualTo(1);
+        assertThat(rejected).isZero();
+        assertThat(reloaded.getStockQuantity()).isEqualTo(7);
+        assertThat(reloaded.getVersion()).isEqualTo(album1.getVersion() + 1);
+    }
+
+    @Test
+    @DisplayName("save: should reject an update based on a stale version")
+    public void testSaveRejectsStaleVersion() {
+        Album staleAlbum = albumRepository.findById(album1.getId()).orElseThrow();
+        albumRepository.reserveStock(album1.getId(), 1, LocalDateTime.now());
+        staleAlbum.setStockQuantity(100);
+
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> albumRepository.save(staleAlbum));
+    }
+
+    @Test
+    @DisplayName("streamAllWithArtist: should stream all albums with their artist in id order")
+    public void testStreamAllWithArtistStreamsAlbumsInIdOrder() {
+        try (Stream<Album> albums = albumRepository.streamAllWithArtist()) {
+            assertThat(albums.toList())
+                    .containsExactly(album1, album2)
+                    .allSatisfy(album -> assertThat(album.getArtist().getName()).isEqualTo("John Doe"));
+        }
+    }
+
+    @Test
+    @DisplayName("findById: should load an album and its artist in one statement without touching the artist's albums")
+    public void testFindByIdLoadsArtistWithoutAlbums() {
+        startCountingStatements();
+
+        Album found = albumRepository.findById(album1.getId()).orElseThrow();
+
+        assertThat(found.getArtist().getName()).isEqualTo("John Doe");
+        assertThat(Hibernate.isInitialized(found.getArtist().getAlbums())).isFalse();
+        assertSelectCount(1);
+        assertStatementCount(1);
+    }
+
+    @Test
+    @DisplayName("findViews, findViewsByIds: should issue one statement however many artists the albums have")
+    public void testFindViewsIssuesOneStatementForManyArtists() {
+        List<Long> ids = saveAlbumsByDistinctArtists(5);
+        startCountingStatements();
+
+        List<AlbumView> page = albumRepository.findViews(new AlbumFilter(), null, 10);
+        List<AlbumView> byIds = albumRepository.findViewsByIds(ids);
+
+        assertThat(page).hasSize(7);
+        assertThat(byIds).extracting(AlbumView::getArtistName).hasSize(5).doesNotHaveDuplicates();
+        assertSelectCount(2);
+        assertStatementCount(2);
+    }
+
+    @Test
+    @DisplayName("findViews, findViewsByIds: should select only the requested fields and join artists only when needed")
+    public void testFindViewsSelectsRequestedFieldsOnly() {
+        startCountingStatements();
+
+        List<AlbumView> names = albumRepository.findViews(new AlbumFilter(), EnumSet.of(AlbumField.ID, AlbumField.NAME), null, 10);
+        List<AlbumView> artistNames = albumRepository.findViewsByIds(List.of(album1.getId()),
+                EnumSet.of(AlbumField.ID, AlbumField.ARTIST_NAME));
+
+        assertThat(names).extracting(AlbumView::getName).containsExactly("album_name1", "album_name2");
+        assertThat(names).allSatisfy(view -> {
+            assertThat(view.getGenre()).isNull();
+            assertThat(view.getArtistName()).isNull();
+            assertThat(view.getCreatedAt()).isNull();
+        });
+        assertThat(artistNames).extracting(AlbumView::getArtistName).containsExactly("John Doe");
+        assertThat(artistNames.getFirst().getName()).isNull();
+
+        String namesQuery = SqlStatements.recorded().getFirst().toLowerCase();
+        assertThat(namesQuery).doesNotContain("genre", "cover_art_url", "created_at", "artists");
+        assertThat(SqlStatements.recorded().get(1).toLowerCase()).doesNotContain("genre", "release_year");
+        assertSelectCount(2);
+    }
+
+    @Test
+    @DisplayName("streamAllWithArtist: should fetch every album's artist in the same statement")
+    public void testStreamAllWithArtistIssuesOneStatement() {
+        saveAlbumsByDistinctArtists(5);
+        startCountingStatements();
+
+        try (Stream<Album> albums = albumRepository.streamAllWithArtist()) {
+            assertThat(albums.map(album -> album.getArtist().getName()).distinct()).hasSize(6);
+        }
+
+        assertStatementCount(1);
+    }
+
+    @Test
+    @DisplayName("findListValidator, countByGenre: should each summarize matching albums in one statement")
+    public void testAggregatesIssueOneStatementEach() {
+        startCountingStatements();
+
+        albumRepository.findListValidator(new AlbumFilter("Rock", null, null, null, null));
+        albumRepository.countByGenre(new AlbumFilter());
+
+        assertSelectCount(2);
+        assertStatementCount(2);
+    }
+
+    @Test
+    @DisplayName("reserveStock: should reserve with a single conditional update")
+    public void testReserveStockIssuesOneUpdate() {
+        startCountingStatements();
+
+        albumRepository.reserveStock(album1.getId(), 1, LocalDateTime.now());
+
+        assertUpdateCount(1);
+        assertStatementCount(1);
+    }
+
+    private List<Long> saveAlbumsByDistinctArtists(int count) {
+        List<Long> ids = new ArrayList<>();
+
+        for (int i = 0; i < count; i++) {
+            Artist artist = artistRepository.save(new Artist(null, "Artist " + i, null, LocalDateTime.now(), LocalDateTime.now()));
+            ids.add(albumRepository.save(new Album(null, "album " + i, artist, "Jazz", null, 2000 + i, 1,
+                    LocalDateTime.now(), LocalDateTime.now(), null)).getId());
+        }
+
+        return ids;
+    }
+
+    private void startCountingStatements() {
+        entityManager.flush();
+        entityManager.clear();
+        SqlStatements.reset();
+    }
 }
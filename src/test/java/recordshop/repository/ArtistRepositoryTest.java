@@ -11,6 +11,7 @@ import org.springframework.test.annotation.DirtiesContext;
 import recordshop.model.Artist;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -38,4 +39,14 @@ public class ArtistRepositoryTest {
         assertThat(foundArtist).hasFieldOrPropertyWithValue("name",  "John Doe");
         assertThat(foundArtist).hasFieldOrPropertyWithValue("albums", null);
     }
+
+    @Test
+    @DisplayName("findAllByNameIn: should return only the artists whose name is in the given set")
+    public void testFindAllByNameIn() {
+        artistRepository.save(new Artist(null, "Jane Doe", null, LocalDateTime.now(), LocalDateTime.now()));
+
+        List<Artist> foundArtists = artistRepository.findAllByNameIn(List.of("John Doe", "Jane Doe", "Nobody"));
+
+        assertThat(foundArtists).extracting(Artist::getName).containsExactlyInAnyOrder("John Doe", "Jane Doe");
+    }
 }
@@ -0,0 +1,164 @@
+package recordshop.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumView;
+import recordshop.dto.ArtistDTO;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.repository.AlbumRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class AlbumSearchIndexTest {
+
+    private AlbumRepository albumRepository;
+    private AlbumSearchIndex albumSearchIndex;
+
+    @BeforeEach
+    public void setUp() {
+        albumRepository = mock(AlbumRepository.class);
+        albumSearchIndex = new AlbumSearchIndex(albumRepository);
+
+        albumSearchIndex.index(1L, "Kind of Blue", "Miles Davis");
+        albumSearchIndex.index(2L, "Blue Train", "John Coltrane");
+        albumSearchIndex.index(3L, "Björk's Début", "Björk");
+        albumSearchIndex.index(4L, "Giant Steps", "John Coltrane");
+    }
+
+    @Test
+    @DisplayName("tokenize: should lowercase, strip accents and split on punctuation")
+    public void testTokenizeFoldsCaseAndAccents() {
+        assertThat(AlbumSearchIndex.tokenize("Björk's  DÉBUT!")).containsExactly("bjork", "s", "debut");
+        assertThat(AlbumSearchIndex.tokenize(" ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search: should match accent-insensitively and rank album name matches above artist matches")
+    public void testSearchRanksAlbumNameAboveArtist() {
+        assertThat(albumSearchIndex.search("bjork", 10)).containsExactly(3L);
+        assertThat(albumSearchIndex.search("coltrane", 10)).containsExactly(2L, 4L);
+        assertThat(albumSearchIndex.search("blue", 10)).containsExactly(1L, 2L);
+        assertThat(albumSearchIndex.search("john giant", 10)).containsExactly(4L, 2L);
+    }
+
+    @Test
+    @DisplayName("search: should treat the last token as a prefix")
+    public void testSearchMatchesPrefixOfLastToken() {
+        assertThat(albumSearchIndex.search("giant st", 10)).containsExactly(4L);
+        assertThat(albumSearchIndex.search("colt", 10)).containsExactly(2L, 4L);
+    }
+
+    @Test
+    @DisplayName("search: should tolerate typos within the bounded edit distance")
+    public void testSearchToleratesTypos() {
+        assertThat(albumSearchIndex.search("coltrnae", 10)).containsExactly(2L, 4L);
+        assertThat(albumSearchIndex.search("traim", 10)).containsExactly(2L);
+        assertThat(albumSearchIndex.search("xyzzy", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("search: should find typo and prefix matches among thousands of words sharing their first letters")
+    public void testSearchFindsMatchesInLargeVocabulary() {
+        for (int i = 0; i < 5000; i++) {
+            StringBuilder term = new StringBuilder("staa");
+
+            for (int digit = i, position = 0; position < 4; digit /= 26, position++) {
+                term.append((char) ('a' + digit % 26));
+            }
+
+            albumSearchIndex.index(100L + i, term.toString(), "filler");
+        }
+
+        albumSearchIndex.index(5L, "Stranger", "Ambient Works");
+
+        assertThat(albumSearchIndex.search("strnger", 10)).containsExactly(5L);
+        assertThat(albumSearchIndex.search("stran", 10)).containsExactly(5L);
+        assertThat(albumSearchIndex.search("st", 10000)).hasSize(5002).contains(5L, 4L);
+        assertThat(albumSearchIndex.search("s", 10)).containsExactly(3L);
+    }
+
+    @Test
+    @DisplayName("topResults: should keep the best scores up to the limit, breaking ties by album id")
+    public void testTopResultsKeepsBestScores() {
+        Map<Long, Double> scores = Map.of(1L, 1.0, 2L, 3.0, 3L, 2.0, 4L, 3.0, 5L, 0.5);
+
+        assertThat(AlbumSearchIndex.topResults(scores, 3)).containsExactly(2L, 4L, 3L);
+        assertThat(AlbumSearchIndex.topResults(scores, 10)).containsExactly(2L, 4L, 3L, 1L, 5L);
+        assertThat(AlbumSearchIndex.topResults(scores, 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("onAlbumChanged: should reindex updated albums and drop deleted ones")
+    public void testOnAlbumChangedKeepsIndexCurrent() {
+        ArtistDTO artist = new ArtistDTO(5L, "Miles Davis", null, null);
+        AlbumDTO renamed = new AlbumDTO(1L, "Sketches of Spain", artist, "Jazz", null, 1960, 1, null, null, null);
+
+        albumSearchIndex.onAlbumChanged(new AlbumChangedEvent(1L, null, renamed));
+        albumSearchIndex.onAlbumChanged(new AlbumChangedEvent(2L, null, null));
+
+        assertThat(albumSearchIndex.search("kind", 10)).isEmpty();
+        assertThat(albumSearchIndex.search("spain", 10)).containsExactly(1L);
+        assertThat(albumSearchIndex.search("train", 10)).isEmpty();
+        assertThat(albumSearchIndex.size()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("load: should index every album in batches")
+    public void testLoadIndexesAllAlbums() {
+        AlbumSearchIndex index = new AlbumSearchIndex(albumRepository);
+        AlbumView view = new AlbumView(7L, "Abbey Road", 1L, "The Beatles", null, null, "Rock", null, 1969, 1, null, null, null);
+        when(albumRepository.findViews(any(AlbumFilter.class), eq(0L), anyInt())).thenReturn(List.of(view));
+
+        index.load();
+
+        assertThat(index.search("beatles abbey", 10)).containsExactly(7L);
+    }
+
+    @Test
+    @DisplayName("load: should drop indexed albums that are no longer in the database")
+    public void testLoadRemovesDeletedAlbums() {
+        AlbumView view = new AlbumView(4L, "Giant Steps", 1L, "John Coltrane", null, null, "Jazz", null, 1960, 1, null,
+                null, null);
+        when(albumRepository.findViews(any(AlbumFilter.class), eq(0L), anyInt())).thenReturn(List.of(view));
+
+        albumSearchIndex.load();
+
+        assertThat(albumSearchIndex.search("blue", 10)).isEmpty();
+        assertThat(albumSearchIndex.search("coltrane", 10)).containsExactly(4L);
+        assertThat(albumSearchIndex.size()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("withinEditDistance: should stop once the distance exceeds the bound")
+    public void testWithinEditDistance() {
+        assertThat(AlbumSearchIndex.withinEditDistance("coltrane", "coltrnae", 2)).isTrue();
+        assertThat(AlbumSearchIndex.withinEditDistance("blue", "blues", 1)).isTrue();
+        assertThat(AlbumSearchIndex.withinEditDistance("blue", "black", 1)).isFalse();
+    }
+
+    @Test
+    @DisplayName("reindex: should reload the given albums by ID and remove the ones that no longer exist")
+    public void testReindexReloadsAlbumsById() {
+        AlbumView view = new AlbumView(1L, "Sketches of Spain", 1L, "Miles Davis", null, null, "Jazz", null, 1960, 1, null,
+                null, null);
+        when(albumRepository.findViewsByIds(Set.of(1L, 2L))).thenReturn(List.of(view));
+
+        albumSearchIndex.reindex(Set.of(1L, 2L));
+
+        assertThat(albumSearchIndex.search("sketches", 10)).containsExactly(1L);
+        assertThat(albumSearchIndex.search("train", 10)).isEmpty();
+        assertThat(albumSearchIndex.size()).isEqualTo(3);
+    }
+}
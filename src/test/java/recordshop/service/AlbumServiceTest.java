@@ -1,28 +1,80 @@
 package recordshop.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+import recordshop.cache.AlbumBodyCache;
+import recordshop.cache.AlbumQueryCache;
+import recordshop.cache.AlbumQueryKey;
+import recordshop.cache.SingleFlight;
+import recordshop.config.ChangeFeedProperties;
+import recordshop.config.JacksonFormats;
+import recordshop.dto.AlbumChangesDTO;
 import recordshop.dto.AlbumDTO;
+import recordshop.dto.AlbumFacetsDTO;
+import recordshop.dto.AlbumField;
+import recordshop.dto.AlbumFilter;
+import recordshop.dto.AlbumImportResultDTO;
+import recordshop.dto.AlbumListValidatorDTO;
+import recordshop.dto.AlbumView;
 import recordshop.dto.ArtistDTO;
+import recordshop.dto.EncodedAlbumListDTO;
+import recordshop.dto.FacetCountDTO;
+import recordshop.dto.StockReservationDTO;
+import recordshop.event.AlbumChangedEvent;
+import recordshop.event.HotStockFlushedEvent;
+import recordshop.exception.ExpiredChangeTokenException;
+import recordshop.exception.InsufficientStockException;
+import recordshop.exception.InvalidQueryParameterException;
 import recordshop.exception.ItemNotFoundException;
+import recordshop.exception.MalformedRequestBodyException;
 import recordshop.exception.MissingFieldException;
+import recordshop.exception.PreconditionFailedException;
 import recordshop.model.Album;
+import recordshop.model.AlbumChange;
+import recordshop.model.AlbumChangeType;
 import recordshop.model.Artist;
+import recordshop.repository.AlbumChangeRepository;
 import recordshop.repository.AlbumRepository;
-import recordshop.repository.ArtistRepository;
+import recordshop.search.AlbumSearchIndex;
+import recordshop.stock.HotStockRegistry;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 
 @SpringBootTest
 public class AlbumServiceTest {
@@ -31,7 +83,45 @@ public class AlbumServiceTest {
     private AlbumRepository mockAlbumRepository;
 
     @Mock
-    private ArtistRepository mockArtistRepository;
+    private ArtistResolver mockArtistResolver;
+
+    @Mock
+    private EntityManager mockEntityManager;
+
+    @Mock
+    private AlbumQueryCache mockAlbumQueryCache;
+
+    @Mock
+    private AlbumBodyCache mockAlbumBodyCache;
+
+    @Mock
+    private AlbumSearchIndex mockAlbumSearchIndex;
+
+    @Mock
+    private ApplicationEventPublisher mockEventPublisher;
+
+    @Mock
+    private TransactionTemplate mockTransactionTemplate;
+
+    @Spy
+    private CacheManager cacheManager = new ConcurrentMapCacheManager();
+
+    @Mock
+    private HotStockRegistry mockHotStockRegistry;
+
+    @Spy
+    private SingleFlight<Long, AlbumDTO> albumLoads = new SingleFlight<>("albums");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    @Spy
+    private JacksonFormats jacksonFormats = new JacksonFormats(objectMapper);
+
+    @Mock
+    private AlbumChangeRepository mockAlbumChangeRepository;
+
+    @Spy
+    private ChangeFeedProperties changeFeedProperties = new ChangeFeedProperties();
 
     @InjectMocks
     private AlbumServiceImpl albumServiceImpl;
@@ -43,6 +133,11 @@ public class AlbumServiceTest {
 
     @BeforeEach
     public void setUp() {
+        when(mockAlbumQueryCache.get(any(AlbumQueryKey.class), any()))
+                .thenAnswer(invocation -> invocation.getArgument(1, Supplier.class).get());
+        when(mockTransactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.getArgument(0, TransactionCallback.class).doInTransaction(null));
+
         artist = new Artist(1L, "artist_name", null, LocalDateTime.now(), LocalDateTime.now());
         artistDTO = new ArtistDTO(artist.getId(), artist.getName(), artist.getCreatedAt(), artist.getModifiedAt());
 
@@ -54,7 +149,8 @@ public class AlbumServiceTest {
                 2000,
                 99,
                 LocalDateTime.now(),
-                LocalDateTime.now());
+                LocalDateTime.now(),
+                null);
 
         albumDTO = new AlbumDTO(1L,
                 album.getName(),
@@ -64,30 +160,311 @@ public class AlbumServiceTest {
                 album.getReleaseYear(),
                 album.getStockQuantity(),
                 album.getCreatedAt(),
-                album.getModifiedAt());
+                album.getModifiedAt(),
+                album.getVersion());
     }
 
     @Test
-    @DisplayName("getAllAlbums: should return list of albums")
-    public void testGetAllAlbumsReturnsListOfAlbums() {
-        List<Album> albumList = new ArrayList<>();
-        albumList.add(new Album(1L, "album1", artist, "Classic", "https://example.com/cover-art.webp", 2024, 1, LocalDateTime.now(), LocalDateTime.now()));
-        albumList.add(new Album(2L, "album2", artist, "Blues","https://example.com/cover-art.webp", 1978, 2, LocalDateTime.now(), LocalDateTime.now()));
-        albumList.add(new Album(3L, "album3", artist, "Electronic","https://example.com/cover-art.webp", 1997, 3, LocalDateTime.now(), LocalDateTime.now()));
+    @DisplayName("getEncodedAlbums: should return every album with its artist")
+    public void testGetEncodedAlbumsReturnsListOfAlbums() throws Exception {
+        List<AlbumView> albumList = new ArrayList<>();
+        albumList.add(albumView(1L, "album1", "Classic"));
+        albumList.add(albumView(2L, "album2", "Blues"));
+        albumList.add(albumView(3L, "album3", "Electronic"));
 
-        when(mockAlbumRepository.findAll()).thenReturn(albumList);
+        when(mockAlbumRepository.findViews(new AlbumFilter(), null, null)).thenReturn(albumList);
 
-        List<AlbumDTO> actualResult = albumServiceImpl.getAllAlbums(null, null, null);
-        AlbumDTO albumDTO1 = actualResult.getFirst();
-        AlbumDTO albumDTO2 = actualResult.get(1);
-        AlbumDTO albumDTO3 = actualResult.getLast();
+        JsonNode actualResult = objectMapper.readTree(albumServiceImpl.getEncodedAlbums(new AlbumFilter(), null, null,
+                null, MediaType.APPLICATION_JSON).getBody());
 
         assertThat(actualResult).hasSize(3);
-        assertThat(albumDTO1).hasFieldOrPropertyWithValue("name", "album1");
-        assertThat(albumDTO2).hasFieldOrPropertyWithValue("name", "album2");
-        assertThat(albumDTO3).hasFieldOrPropertyWithValue("name", "album3");
+        assertThat(actualResult.get(0).get("name").asText()).isEqualTo("album1");
+        assertThat(actualResult.get(1).get("name").asText()).isEqualTo("album2");
+        assertThat(actualResult.get(2).get("name").asText()).isEqualTo("album3");
+        assertThat(actualResult.get(0).get("artist").get("name").asText()).isEqualTo("artist_name");
+
+        verify(mockAlbumRepository, times(1)).findViews(new AlbumFilter(), null, null);
+        verify(mockAlbumRepository, never()).findAll();
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should query and cache by every supplied filter combined")
+    public void testGetEncodedAlbumsCombinesFiltersInCacheKeyAndQuery() throws Exception {
+        AlbumFilter filter = new AlbumFilter("Rock", 1999, null, null, " ");
+        AlbumFilter normalizedFilter = new AlbumFilter("Rock", 1999, null, null, null);
+        when(mockAlbumRepository.findViews(normalizedFilter, null, null)).thenReturn(List.of(albumView(1L, "album1", "Rock")));
+
+        EncodedAlbumListDTO result = albumServiceImpl.getEncodedAlbums(filter, null, null, null, MediaType.APPLICATION_JSON);
+
+        assertThat(objectMapper.readTree(result.getBody())).hasSize(1);
+        verify(mockAlbumQueryCache, times(1)).get(eq(AlbumQueryKey.encoded(normalizedFilter, null, null, null,
+                MediaType.APPLICATION_JSON)), any());
+        verify(mockAlbumRepository, times(1)).findViews(normalizedFilter, null, null);
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should throw InvalidQueryParameterException when the year range is inverted")
+    public void testGetEncodedAlbumsThrowsOnInvertedYearRange() {
+        AlbumFilter filter = new AlbumFilter(null, null, 2000, 1990, null);
+
+        assertThrows(InvalidQueryParameterException.class,
+                () -> albumServiceImpl.getEncodedAlbums(filter, null, null, null, MediaType.APPLICATION_JSON));
+
+        verifyNoInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should return a page and a cursor when more albums follow")
+    public void testGetEncodedAlbumsReturnsCursorWhenMoreAlbumsFollow() throws Exception {
+        AlbumFilter rock = new AlbumFilter("Rock", null, null, null, null);
+        List<AlbumView> albumList = new ArrayList<>();
+        albumList.add(albumView(1L, "album1", "Rock"));
+        albumList.add(albumView(2L, "album2", "Rock"));
+        albumList.add(albumView(3L, "album3", "Rock"));
+
+        when(mockAlbumRepository.findViews(rock, 0L, 3)).thenReturn(albumList);
+
+        EncodedAlbumListDTO firstPage = albumServiceImpl.getEncodedAlbums(rock, null, 2, null, MediaType.APPLICATION_JSON);
+
+        assertThat(objectMapper.readTree(firstPage.getBody())).extracting(album -> album.get("id").asLong())
+                .containsExactly(1L, 2L);
+        assertThat(firstPage.getNextCursor()).isNotNull();
+
+        when(mockAlbumRepository.findViews(rock, 2L, 3)).thenReturn(albumList.subList(2, 3));
+
+        EncodedAlbumListDTO secondPage = albumServiceImpl.getEncodedAlbums(rock, null, 2, firstPage.getNextCursor(),
+                MediaType.APPLICATION_JSON);
+
+        assertThat(objectMapper.readTree(secondPage.getBody())).extracting(album -> album.get("id").asLong())
+                .containsExactly(3L);
+        assertThat(secondPage.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should cache small lists as plain JSON under the encoded key")
+    public void testGetEncodedAlbumsKeepsSmallListsPlain() throws Exception {
+        AlbumFilter rock = new AlbumFilter("Rock", null, null, null, null);
+        when(mockAlbumRepository.findViews(rock, null, null)).thenReturn(List.of(albumView(1L, "album1", "Rock")));
+
+        EncodedAlbumListDTO result = albumServiceImpl.getEncodedAlbums(rock, null, null, null, MediaType.APPLICATION_JSON);
+
+        assertThat(result.isGzipped()).isFalse();
+        assertThat(result.getNextCursor()).isNull();
+        assertThat(objectMapper.readTree(result.getBody()).get(0).get("name").asText()).isEqualTo("album1");
+        verify(mockAlbumQueryCache, times(1)).get(eq(AlbumQueryKey.encoded(rock, null, null, null, MediaType.APPLICATION_JSON)), any());
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should gzip pages at or above the compression threshold and keep the cursor")
+    public void testGetEncodedAlbumsGzipsLargePages() throws Exception {
+        albumServiceImpl.compressionMinResponseSize = DataSize.ofBytes(1);
+        AlbumFilter filter = new AlbumFilter();
+        List<AlbumView> albumList = List.of(albumView(1L, "album1", "Rock"), albumView(2L, "album2", "Rock"));
+        when(mockAlbumRepository.findViews(filter, 0L, 2)).thenReturn(albumList);
+
+        EncodedAlbumListDTO result = albumServiceImpl.getEncodedAlbums(filter, null, 1, null, MediaType.APPLICATION_JSON);
+
+        assertThat(result.isGzipped()).isTrue();
+        assertThat(result.getNextCursor()).isNotNull();
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(result.getBody()))) {
+            assertThat(objectMapper.readTree(gzip)).hasSize(1);
+        }
+        verify(mockAlbumQueryCache, times(1)).get(eq(AlbumQueryKey.encoded(filter, null, 1, 0L, MediaType.APPLICATION_JSON)), any());
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should select and serialize only the requested fields")
+    public void testGetEncodedAlbumsWithFields() throws Exception {
+        AlbumFilter filter = new AlbumFilter();
+        Set<AlbumField> fields = EnumSet.of(AlbumField.ID, AlbumField.NAME, AlbumField.ARTIST_NAME);
+        AlbumView view = new AlbumView(1L, "album1", null, "artist_name", null, null, null, null, null, null, null, null, null);
+        when(mockAlbumRepository.findViews(filter, fields, null, null)).thenReturn(List.of(view));
+
+        EncodedAlbumListDTO result = albumServiceImpl.getEncodedAlbums(filter, "name, artist.name,id", null, null, MediaType.APPLICATION_JSON);
+
+        assertThat(new String(result.getBody(), StandardCharsets.UTF_8))
+                .isEqualTo("[{\"id\":1,\"name\":\"album1\",\"artist\":{\"name\":\"artist_name\"}}]");
+        verify(mockAlbumQueryCache, times(1)).get(eq(AlbumQueryKey.encoded(filter, fields, null, null, MediaType.APPLICATION_JSON)), any());
+        verify(mockAlbumRepository, never()).findViews(any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should throw InvalidQueryParameterException for an unknown field")
+    public void testGetEncodedAlbumsThrowsOnUnknownField() {
+        assertThrows(InvalidQueryParameterException.class,
+                () -> albumServiceImpl.getEncodedAlbums(new AlbumFilter(), "id,label", null, null, MediaType.APPLICATION_JSON));
+
+        verifyNoInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("getAlbumById(fields): should select the requested fields plus validators on a miss and reuse a cached album on a hit")
+    public void testGetAlbumByIdWithFields() {
+        Set<AlbumField> selected = EnumSet.of(AlbumField.ID, AlbumField.ARTIST_MODIFIED_AT, AlbumField.GENRE, AlbumField.MODIFIED_AT);
+        when(mockAlbumRepository.findViewsByIds(List.of(1L), selected)).thenReturn(List.of(albumView(1L, "album1", "Rock")));
+
+        assertThat(albumServiceImpl.getAlbumById(1L, "genre").getGenre()).isEqualTo("Rock");
+
+        cacheManager.getCache("albums").put(1L, albumDTO);
+
+        assertThat(albumServiceImpl.getAlbumById(1L, "genre")).isSameAs(albumDTO);
+        verify(mockAlbumRepository, times(1)).findViewsByIds(any(), any());
+        verifyNoMoreInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("getAlbumBody(fields): should encode a projection of the album instead of the cached full body")
+    public void testGetAlbumBodyWithFieldsEncodesProjection() {
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        Map<String, Object> projection = new LinkedHashMap<>();
+        projection.put("id", albumDTO.getId());
+        projection.put("artist", Map.of("name", albumDTO.getArtist().getName()));
+        when(mockAlbumBodyCache.encode(projection, MediaType.APPLICATION_JSON)).thenReturn(body);
+
+        assertThat(albumServiceImpl.getAlbumBody(albumDTO, "artist.name,id", MediaType.APPLICATION_JSON)).isSameAs(body);
+
+        verify(mockAlbumBodyCache, never()).get(any(), any());
+    }
+
+    @Test
+    @DisplayName("getEncodedAlbums: should throw InvalidQueryParameterException for an out of range limit or malformed cursor")
+    public void testGetEncodedAlbumsThrowsOnInvalidPageParameters() {
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.getEncodedAlbums(new AlbumFilter(),
+                null, 0, null, MediaType.APPLICATION_JSON));
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.getEncodedAlbums(new AlbumFilter(),
+                null, 10, "not-a-cursor", MediaType.APPLICATION_JSON));
+
+        verifyNoInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("getAlbumChanges: should hand out a token at the latest settled change when no token is given")
+    public void testGetAlbumChangesStartsAtLatestChange() {
+        when(mockAlbumChangeRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        when(mockAlbumChangeRepository.findLastIdChangedBefore(any())).thenReturn(42L);
+
+        AlbumChangesDTO result = albumServiceImpl.getAlbumChanges(null, null);
 
-        verify(mockAlbumRepository, times(1)).findAll();
+        assertThat(result.getUpserted()).isEmpty();
+        assertThat(result.getDeleted()).isEmpty();
+        assertThat(AlbumChangeToken.decode(result.getNextToken()).sequence()).isEqualTo(42L);
+        verifyNoInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("getAlbumChanges: should collapse each album to its latest change and report upserted albums that are gone as deleted")
+    public void testGetAlbumChangesCollapsesChangesPerAlbum() {
+        when(mockAlbumChangeRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        LocalDateTime changedAt = LocalDateTime.now().minusMinutes(1);
+        String since = new AlbumChangeToken(10L, LocalDateTime.now()).encode();
+        when(mockAlbumChangeRepository.findByIdGreaterThanOrderById(10L, Limit.of(4))).thenReturn(List.of(
+                new AlbumChange(11L, 1L, AlbumChangeType.UPSERT, changedAt),
+                new AlbumChange(12L, 2L, AlbumChangeType.UPSERT, changedAt),
+                new AlbumChange(13L, 1L, AlbumChangeType.UPSERT, changedAt),
+                new AlbumChange(14L, 2L, AlbumChangeType.DELETE, changedAt)));
+        when(mockAlbumRepository.findViewsByIds(List.of(2L, 1L))).thenReturn(List.of(albumView(1L, "album1", "Rock")));
+
+        AlbumChangesDTO result = albumServiceImpl.getAlbumChanges(since, 3);
+
+        assertThat(result.getUpserted()).extracting(AlbumDTO::getId).containsExactly(1L);
+        assertThat(result.getDeleted()).containsExactly(2L);
+        assertThat(result.isHasMore()).isTrue();
+        assertThat(AlbumChangeToken.decode(result.getNextToken()).sequence()).isEqualTo(13L);
+    }
+
+    @Test
+    @DisplayName("getAlbumChanges: should stop before changes that are still settling")
+    public void testGetAlbumChangesStopsAtUnsettledChange() {
+        when(mockAlbumChangeRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        String since = new AlbumChangeToken(10L, LocalDateTime.now()).encode();
+        when(mockAlbumChangeRepository.findByIdGreaterThanOrderById(10L, Limit.of(51))).thenReturn(List.of(
+                new AlbumChange(11L, 1L, AlbumChangeType.DELETE, LocalDateTime.now().minusMinutes(1)),
+                new AlbumChange(12L, 2L, AlbumChangeType.DELETE, LocalDateTime.now().plusMinutes(1))));
+
+        AlbumChangesDTO result = albumServiceImpl.getAlbumChanges(since, null);
+
+        assertThat(result.getDeleted()).containsExactly(1L);
+        assertThat(result.isHasMore()).isFalse();
+        assertThat(AlbumChangeToken.decode(result.getNextToken()).sequence()).isEqualTo(11L);
+        verifyNoInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("getAlbumChanges: should throw ExpiredChangeTokenException for tokens older than the retention window")
+    public void testGetAlbumChangesThrowsOnExpiredToken() {
+        when(mockAlbumChangeRepository.findDatabaseTime()).thenReturn(LocalDateTime.now());
+        String since = new AlbumChangeToken(10L, LocalDateTime.now().minusDays(8)).encode();
+
+        assertThrows(ExpiredChangeTokenException.class, () -> albumServiceImpl.getAlbumChanges(since, null));
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.getAlbumChanges("not-a-token", null));
+
+        verify(mockAlbumChangeRepository, never()).findByIdGreaterThanOrderById(any(), any());
+    }
+
+    @Test
+    @DisplayName("getAlbumsValidator: should load the list validator through the query cache")
+    public void testGetAlbumsValidatorUsesQueryCache() {
+        AlbumFilter filter = new AlbumFilter("Rock", null, null, null, null);
+        AlbumListValidatorDTO validator = new AlbumListValidatorDTO(2L, LocalDateTime.now());
+        when(mockAlbumRepository.findListValidator(filter)).thenReturn(validator);
+
+        assertThat(albumServiceImpl.getAlbumsValidator(filter, null, null, null)).isEqualTo(validator);
+        verify(mockAlbumQueryCache, times(1)).get(eq(AlbumQueryKey.validator(filter)), any());
+    }
+
+    @Test
+    @DisplayName("getAlbumsValidator: should reject invalid fields, limits and cursors before loading the validator")
+    public void testGetAlbumsValidatorRejectsInvalidListParameters() {
+        AlbumFilter filter = new AlbumFilter();
+
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.getAlbumsValidator(filter, "id,bogus", null, null));
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.getAlbumsValidator(filter, null, 0, null));
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.getAlbumsValidator(filter, null, null, "bad"));
+        verify(mockAlbumQueryCache, never()).get(any(), any());
+    }
+
+    @Test
+    @DisplayName("getAlbumFacets: should aggregate in the repository and derive decades from release years")
+    public void testGetAlbumFacetsDerivesDecades() {
+        AlbumFilter filter = new AlbumFilter("Rock", null, null, null, null);
+        when(mockAlbumRepository.countByGenre(filter)).thenReturn(List.of(new FacetCountDTO<>("Rock", 4L, 40L)));
+        when(mockAlbumRepository.countByReleaseYear(filter)).thenReturn(List.of(
+                new FacetCountDTO<>(1969, 1L, 10L),
+                new FacetCountDTO<>(1971, 2L, 20L),
+                new FacetCountDTO<>(1979, 1L, 10L)));
+        when(mockAlbumRepository.countByArtist(filter, AlbumServiceImpl.MAX_ARTIST_FACETS))
+                .thenReturn(List.of(new FacetCountDTO<>("artist_name", 4L, 40L)));
+
+        AlbumFacetsDTO facets = albumServiceImpl.getAlbumFacets(filter);
+
+        assertThat(facets.getGenres()).containsExactly(new FacetCountDTO<>("Rock", 4L, 40L));
+        assertThat(facets.getReleaseYears()).hasSize(3);
+        assertThat(facets.getDecades()).containsExactly(new FacetCountDTO<>(1960, 1L, 10L), new FacetCountDTO<>(1970, 3L, 30L));
+        assertThat(facets.getArtists()).extracting(FacetCountDTO::getValue).containsExactly("artist_name");
+        verify(mockAlbumQueryCache, times(1)).get(eq(AlbumQueryKey.facets(filter)), any());
+    }
+
+    @Test
+    @DisplayName("searchAlbums: should return albums in ranked order from a single lookup")
+    public void testSearchAlbumsReturnsAlbumsInRankOrder() {
+        when(mockAlbumSearchIndex.search("blue", AlbumServiceImpl.DEFAULT_SEARCH_SIZE)).thenReturn(List.of(3L, 1L));
+        when(mockAlbumRepository.findViewsByIds(List.of(3L, 1L)))
+                .thenReturn(List.of(albumView(1L, "Blue Train", "Jazz"), albumView(3L, "Kind of Blue", "Jazz")));
+
+        List<AlbumDTO> result = albumServiceImpl.searchAlbums("blue", null);
+
+        assertThat(result).extracting(AlbumDTO::getId).containsExactly(3L, 1L);
+        verify(mockAlbumRepository, times(1)).findViewsByIds(List.of(3L, 1L));
+    }
+
+    @Test
+    @DisplayName("searchAlbums: should reject a blank query or an out of range limit")
+    public void testSearchAlbumsRejectsInvalidParameters() {
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.searchAlbums(" ", null));
+        assertThrows(InvalidQueryParameterException.class,
+                () -> albumServiceImpl.searchAlbums("blue", AlbumServiceImpl.MAX_SEARCH_SIZE + 1));
+
+        verify(mockAlbumSearchIndex, never()).search(anyString(), anyInt());
     }
 
     @Test
@@ -106,6 +483,7 @@ public class AlbumServiceTest {
         assertThat(result).hasFieldOrPropertyWithValue("stockQuantity", 99);
 
         verify(mockAlbumRepository, times(1)).findById(1L);
+        verifyNoMoreInteractions(mockAlbumRepository);
     }
 
     @Test
@@ -118,10 +496,21 @@ public class AlbumServiceTest {
         verify(mockAlbumRepository, times(1)).findById(1L);
     }
 
+    @Test
+    @DisplayName("getAlbumBody: should serve the album's encoded body from the body cache")
+    public void testGetAlbumBodyUsesBodyCache() {
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        when(mockAlbumBodyCache.get(albumDTO, MediaType.APPLICATION_JSON)).thenReturn(body);
+
+        assertThat(albumServiceImpl.getAlbumBody(albumDTO, null, MediaType.APPLICATION_JSON)).isSameAs(body);
+
+        verifyNoInteractions(mockAlbumRepository);
+    }
+
     @Test
     @DisplayName("addAlbum: should return new album when artist already exists")
     public void testAddAlbumReturnsAlbumWhenArtistExists() {
-        when(mockArtistRepository.findByName("artist_name")).thenReturn(artist);
+        when(mockArtistResolver.findOrCreate("artist_name")).thenReturn(artistDTO);
         when(mockAlbumRepository.save(album)).thenReturn(album);
 
         AlbumDTO result = albumServiceImpl.addAlbum(albumDTO);
@@ -135,17 +524,18 @@ public class AlbumServiceTest {
         assertThat(result).hasFieldOrPropertyWithValue("releaseYear", 2000);
         assertThat(result).hasFieldOrPropertyWithValue("stockQuantity", 99);
 
-        verify(mockArtistRepository, times(1)).findByName("artist_name");
-        verify(mockArtistRepository, never()).save(artist);
+        verify(mockArtistResolver, times(1)).findOrCreate("artist_name");
         verify(mockAlbumRepository, times(1)).save(album);
+        verify(mockEventPublisher, times(1)).publishEvent(new AlbumChangedEvent(1L, null, result));
+        verify(mockTransactionTemplate, times(1)).execute(any());
     }
 
     @Test
-    @DisplayName("addAlbum: should return new album and save artist when artist does not exist")
+    @DisplayName("addAlbum: should return new album and reference the artist the resolver created")
     public void testAddAlbumReturnsAlbumWhenArtistDoesNotExist() {
-        when(mockArtistRepository.findByName("artist_name")).thenReturn(null);
-        when(mockArtistRepository.save(artist)).thenReturn(artist);
-        when(mockAlbumRepository.save(album)).thenReturn(album);
+        ArtistDTO createdArtistDTO = new ArtistDTO(2L, "artist_name", LocalDateTime.now(), LocalDateTime.now());
+        when(mockArtistResolver.findOrCreate("artist_name")).thenReturn(createdArtistDTO);
+        when(mockAlbumRepository.save(any(Album.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
         AlbumDTO result = albumServiceImpl.addAlbum(albumDTO);
 
@@ -158,11 +548,41 @@ public class AlbumServiceTest {
         assertThat(result).hasFieldOrPropertyWithValue("releaseYear", 2000);
         assertThat(result).hasFieldOrPropertyWithValue("stockQuantity", 99);
 
-        verify(mockArtistRepository, times(1)).findByName("artist_name");
-        verify(mockArtistRepository, times(1)).save(artist);
+        assertThat(result).hasFieldOrPropertyWithValue("artist.id", 2L);
+
+        verify(mockArtistResolver, times(1)).findOrCreate("artist_name");
+        verify(mockAlbumRepository, times(1)).save(any(Album.class));
+    }
+
+    @Test
+    @DisplayName("addAlbum: should retry once with the concurrently inserted artist when creating the artist hits the unique constraint")
+    public void testAddAlbumRetriesWhenArtistInsertConflicts() {
+        when(mockArtistResolver.findOrCreate("artist_name"))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(artistDTO);
+        when(mockArtistResolver.find("artist_name")).thenReturn(null, artistDTO);
+        when(mockAlbumRepository.save(album)).thenReturn(album);
+
+        AlbumDTO result = albumServiceImpl.addAlbum(albumDTO);
+
+        assertThat(result).hasFieldOrPropertyWithValue("artist.id", 1L);
+        verify(mockTransactionTemplate, times(2)).execute(any());
         verify(mockAlbumRepository, times(1)).save(album);
     }
 
+    @Test
+    @DisplayName("addAlbum: should not retry a constraint violation that is not caused by inserting the artist")
+    public void testAddAlbumRethrowsOtherConstraintViolations() {
+        when(mockArtistResolver.find("artist_name")).thenReturn(artistDTO);
+        when(mockArtistResolver.findOrCreate("artist_name")).thenReturn(artistDTO);
+        when(mockAlbumRepository.save(album)).thenThrow(new DataIntegrityViolationException("constraint violation"));
+
+        assertThrows(DataIntegrityViolationException.class, () -> albumServiceImpl.addAlbum(albumDTO));
+
+        verify(mockTransactionTemplate, times(1)).execute(any());
+        verify(mockEventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     @DisplayName("addAlbum: should throw MissingFieldException when attempting to add a Album with missing/null fields")
     public void testAddAlbumThrowsWhenMissingFields() {
@@ -183,11 +603,11 @@ public class AlbumServiceTest {
     @Test
     @DisplayName("updateAlbumById: should update album")
     public void testUpdateAlbumByIdReturnsUpdatedAlbum() {
-        when(mockArtistRepository.findByName("artist_name")).thenReturn(artist);
+        when(mockArtistResolver.find("artist_name")).thenReturn(artistDTO);
         when(mockAlbumRepository.findById(1L)).thenReturn(Optional.of(album));
         when(mockAlbumRepository.save(any(Album.class))).thenReturn(album);
 
-        AlbumDTO result = albumServiceImpl.updateAlbumById(1L, albumDTO);
+        AlbumDTO result = albumServiceImpl.updateAlbumById(1L, albumDTO, current -> true);
 
         assertThat(result).isNotNull();
         assertThat(result).hasFieldOrPropertyWithValue("id", 1L);
@@ -200,9 +620,35 @@ public class AlbumServiceTest {
         assertThat(result).hasFieldOrPropertyWithValue("createdAt", album.getCreatedAt());
         assertThat(result).hasFieldOrPropertyWithValue("modifiedAt", album.getModifiedAt());
 
-        verify(mockArtistRepository, times(1)).findByName("artist_name");
+        verify(mockArtistResolver, times(1)).find("artist_name");
         verify(mockAlbumRepository, times(1)).findById(1L);
         verify(mockAlbumRepository, times(1)).save(any(Album.class));
+        verifyNoMoreInteractions(mockAlbumRepository);
+        verify(mockEventPublisher, times(1)).publishEvent(any(AlbumChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("updateAlbumById: should throw ItemNotFoundException when the artist does not exist")
+    public void testUpdateAlbumByIdThrowsWhenArtistNotFound() {
+        when(mockArtistResolver.find("artist_name")).thenReturn(null);
+        when(mockAlbumRepository.findById(1L)).thenReturn(Optional.of(album));
+
+        assertThrows(ItemNotFoundException.class, () -> albumServiceImpl.updateAlbumById(1L, albumDTO, current -> true));
+
+        verify(mockAlbumRepository, never()).save(any(Album.class));
+    }
+
+    @Test
+    @DisplayName("updateAlbumById: should check the precondition against the album it loaded and not save when it fails")
+    public void testUpdateAlbumByIdThrowsWhenPreconditionFails() {
+        album.setVersion(3L);
+        when(mockAlbumRepository.findById(1L)).thenReturn(Optional.of(album));
+
+        assertThrows(PreconditionFailedException.class,
+                () -> albumServiceImpl.updateAlbumById(1L, albumDTO, current -> current.getVersion() == 2L));
+
+        verify(mockAlbumRepository, never()).save(any(Album.class));
+        verifyNoInteractions(mockEventPublisher);
     }
 
     @Test
@@ -210,10 +656,12 @@ public class AlbumServiceTest {
     public void testDeleteByIdDeletesAlbum() {
         when(mockAlbumRepository.findById(1L)).thenReturn(Optional.of(album));
 
-        albumServiceImpl.deleteAlbumById(1L);
+        albumServiceImpl.deleteAlbumById(1L, current -> true);
 
         verify(mockAlbumRepository, times(1)).findById(1L);
-        verify(mockAlbumRepository, times(1)).deleteById(1L);
+        verify(mockAlbumRepository, times(1)).delete(album);
+        verifyNoMoreInteractions(mockAlbumRepository);
+        verify(mockEventPublisher, times(1)).publishEvent(new AlbumChangedEvent(1L, albumServiceImpl.mapToDTO(album), null));
     }
 
     @Test
@@ -221,9 +669,188 @@ public class AlbumServiceTest {
     public void testDeleteByIdThrowsException() {
         when(mockAlbumRepository.findById(1L)).thenReturn(Optional.empty());
 
-        assertThrows(ItemNotFoundException.class, () -> albumServiceImpl.deleteAlbumById(1L));
+        assertThrows(ItemNotFoundException.class, () -> albumServiceImpl.deleteAlbumById(1L, current -> true));
 
         verify(mockAlbumRepository, times(1)).findById(1L);
+        verifyNoInteractions(mockEventPublisher);
+    }
+
+    @Test
+    @DisplayName("reserveAlbums: should reserve in id order, refresh the albums cache and publish changes")
+    public void testReserveAlbumsReservesAndRefreshesCache() {
+        when(mockAlbumRepository.reserveStock(eq(1L), eq(3), any())).thenReturn(1);
+        when(mockAlbumRepository.reserveStock(eq(2L), eq(1), any())).thenReturn(1);
+        when(mockAlbumRepository.findViewsByIds(any()))
+                .thenReturn(List.of(albumView(2L, "album2", "Jazz"), albumView(1L, "album1", "Rock")));
+
+        List<AlbumDTO> result = albumServiceImpl.reserveAlbums(List.of(
+                new StockReservationDTO(2L, 1),
+                new StockReservationDTO(1L, 2),
+                new StockReservationDTO(1L, 1)));
+
+        assertThat(result).extracting(AlbumDTO::getId).containsExactly(1L, 2L);
+        assertThat(cacheManager.getCache("albums").get(1L, AlbumDTO.class)).isEqualTo(result.getFirst());
+        verify(mockEventPublisher, times(2)).publishEvent(any(AlbumChangedEvent.class));
+        verify(mockAlbumRepository, times(1)).findViewsByIds(any());
+        verify(mockAlbumRepository, times(2)).reserveStock(anyLong(), anyInt(), any());
+        verifyNoMoreInteractions(mockAlbumRepository);
+    }
+
+    @Test
+    @DisplayName("reserveAlbums: should report in-memory stock for albums in hot-item mode")
+    public void testReserveAlbumsUsesHotStock() {
+        when(mockHotStockRegistry.isEnabled()).thenReturn(true);
+        when(mockHotStockRegistry.reserve(eq(Map.of(1L, 2)), any())).thenReturn(Map.of(1L, 7L));
+        when(mockAlbumRepository.findViewsByIds(List.of(1L))).thenReturn(List.of(albumView(1L, "album1", "Rock")));
+
+        List<AlbumDTO> result = albumServiceImpl.reserveAlbums(List.of(new StockReservationDTO(1L, 2)));
+
+        assertThat(result).singleElement().hasFieldOrPropertyWithValue("stockQuantity", 7);
+        verify(mockAlbumRepository, never()).reserveStock(anyLong(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("onHotStockFlushed: should refresh flushed albums in the cache and publish their changes")
+    public void testOnHotStockFlushedRefreshesCache() {
+        when(mockAlbumRepository.findViewsByIds(Set.of(1L))).thenReturn(List.of(albumView(1L, "album1", "Rock")));
+
+        albumServiceImpl.onHotStockFlushed(new HotStockFlushedEvent(Set.of(1L)));
+
+        assertThat(cacheManager.getCache("albums").get(1L, AlbumDTO.class)).hasFieldOrPropertyWithValue("name", "album1");
+        verify(mockEventPublisher, times(1)).publishEvent(any(AlbumChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("reserveAlbum: should throw InsufficientStockException when the conditional update matches nothing")
+    public void testReserveAlbumThrowsWhenStockIsInsufficient() {
+        when(mockAlbumRepository.reserveStock(eq(1L), eq(5), any())).thenReturn(0);
+        when(mockAlbumRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(InsufficientStockException.class, () -> albumServiceImpl.reserveAlbum(1L, 5));
+        verify(mockEventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    @DisplayName("reserveAlbum: should throw ItemNotFoundException for an unknown album and reject non-positive quantities")
+    public void testReserveAlbumRejectsUnknownAlbumsAndInvalidQuantities() {
+        when(mockAlbumRepository.reserveStock(eq(9L), eq(1), any())).thenReturn(0);
+        when(mockAlbumRepository.existsById(9L)).thenReturn(false);
+
+        assertThrows(ItemNotFoundException.class, () -> albumServiceImpl.reserveAlbum(9L, 1));
+        assertThrows(InvalidQueryParameterException.class, () -> albumServiceImpl.reserveAlbum(1L, 0));
+    }
+
+    @Test
+    @DisplayName("importAlbums: should resolve artists once per chunk, batch-insert albums and report each row")
+    public void testImportAlbumsReportsPerRowResults() {
+        AlbumDTO newArtistAlbumDTO = new AlbumDTO(null, "album2", new ArtistDTO(null, "new_artist", null, null),
+                "Jazz", null, 1959, 5, null, null, null);
+        AlbumDTO invalidAlbumDTO = new AlbumDTO();
+        ArtistDTO newArtistDTO = new ArtistDTO(2L, "new_artist", LocalDateTime.now(), LocalDateTime.now());
+        albumServiceImpl.importChunkSize = 2;
+
+        when(mockArtistResolver.findOrCreateAll(List.of("artist_name", "new_artist")))
+                .thenReturn(Map.of("artist_name", artistDTO, "new_artist", newArtistDTO));
+        when(mockAlbumRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Album> albums = invocation.getArgument(0);
+            for (int i = 0; i < albums.size(); i++) {
+                albums.get(i).setId(10L + i);
+            }
+            return albums;
+        });
+
+        List<AlbumImportResultDTO> results = albumServiceImpl.importAlbums(
+                List.of(albumDTO, newArtistAlbumDTO, invalidAlbumDTO).iterator());
+
+        assertThat(results).extracting(AlbumImportResultDTO::getIndex).containsExactly(0, 1, 2);
+        assertThat(results).extracting(AlbumImportResultDTO::getStatus).containsExactly(
+                AlbumImportResultDTO.Status.CREATED, AlbumImportResultDTO.Status.CREATED, AlbumImportResultDTO.Status.REJECTED);
+        assertThat(results).extracting(AlbumImportResultDTO::getId).containsExactly(10L, 11L, null);
+
+        verify(mockArtistResolver, times(1)).findOrCreateAll(anyCollection());
+        verify(mockAlbumRepository, times(1)).saveAll(argThat((List<Album> albums) ->
+                albums.get(0).getArtist().getId().equals(1L) && albums.get(1).getArtist().getId().equals(2L)));
+        verify(mockEventPublisher, times(2)).publishEvent(any(AlbumChangedEvent.class));
+    }
+
+    @Test
+    @DisplayName("importAlbums: should commit the rows before a malformed one and reject it instead of failing the request")
+    public void testImportAlbumsRejectsMalformedRow() {
+        when(mockArtistResolver.findOrCreateAll(anyCollection())).thenReturn(Map.of("artist_name", artistDTO));
+        when(mockAlbumRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        Iterator<AlbumDTO> albums = new Iterator<>() {
+            private int read;
+
+            @Override
+            public boolean hasNext() {
+                return true;
+            }
+
+            @Override
+            public AlbumDTO next() {
+                if (read++ == 1) {
+                    throw new MalformedRequestBodyException("Malformed album in request body");
+                }
+
+                return albumDTO;
+            }
+        };
+
+        List<AlbumImportResultDTO> results = albumServiceImpl.importAlbums(albums);
+
+        assertThat(results).extracting(AlbumImportResultDTO::getIndex).containsExactly(0, 1);
+        assertThat(results).extracting(AlbumImportResultDTO::getStatus).containsExactly(
+                AlbumImportResultDTO.Status.CREATED, AlbumImportResultDTO.Status.REJECTED);
+        verify(mockAlbumRepository, times(1)).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("importAlbums: should mark every row of a chunk as failed without exposing the database error")
+    public void testImportAlbumsMarksFailedChunk() {
+        when(mockArtistResolver.findOrCreateAll(anyCollection())).thenReturn(Map.of("artist_name", artistDTO));
+        when(mockAlbumRepository.saveAll(anyList())).thenThrow(new IllegalStateException("insert into albums violated constraint"));
+
+        List<AlbumImportResultDTO> results = albumServiceImpl.importAlbums(List.of(albumDTO).iterator());
+
+        assertThat(results).containsExactly(new AlbumImportResultDTO(0, AlbumImportResultDTO.Status.FAILED, null,
+                AlbumServiceImpl.IMPORT_FAILED_MESSAGE));
+        verifyNoInteractions(mockEventPublisher);
+    }
+
+    @Test
+    @DisplayName("exportAlbums: should write one NDJSON line per album and detach each album")
+    public void testExportAlbumsWritesNdjson() throws Exception {
+        Album secondAlbum = new Album(2L, "second_album", artist, "Jazz", null, 1959, 5, LocalDateTime.now(),
+                LocalDateTime.now(), null);
+        when(mockAlbumRepository.streamAllWithArtist()).thenReturn(Stream.of(album, secondAlbum));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        albumServiceImpl.exportAlbums(AlbumExportFormat.NDJSON, outputStream);
+
+        String export = outputStream.toString(StandardCharsets.UTF_8);
+        String[] lines = export.split("\n");
+
+        assertThat(export).endsWith("}\n");
+        assertThat(lines).hasSize(2).allSatisfy(line -> assertThat(line).startsWith("{").endsWith("}"));
+        assertThat(lines[0]).startsWith("{\"id\":1,\"name\":\"album_name\",\"artistId\":1,\"artistName\":\"artist_name\"");
+        assertThat(lines[1]).startsWith("{\"id\":2,\"name\":\"second_album\"");
+        verify(mockEntityManager, times(1)).detach(album);
+        verify(mockEntityManager, times(1)).detach(secondAlbum);
+    }
+
+    @Test
+    @DisplayName("exportAlbums: should write a CSV header followed by one row per album")
+    public void testExportAlbumsWritesCsv() throws Exception {
+        when(mockAlbumRepository.streamAllWithArtist()).thenReturn(Stream.of(album));
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+
+        albumServiceImpl.exportAlbums(AlbumExportFormat.CSV, outputStream);
+
+        String[] lines = outputStream.toString(StandardCharsets.UTF_8).split("\n");
+
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).isEqualTo("id,name,artistId,artistName,genre,coverArtUrl,releaseYear,stockQuantity,createdAt,modifiedAt");
+        assertThat(lines[1]).startsWith("1,album_name,1,artist_name,Rock,\"https://example.com/cover-art.webp\",2000,99,");
     }
 
     @Test
@@ -242,6 +869,21 @@ public class AlbumServiceTest {
         assertThat(result).hasFieldOrPropertyWithValue("stockQuantity", 99);
     }
 
+    @Test
+    @DisplayName("mapToDTO(AlbumView): should return projected album as a DTO")
+    public void testMapToDTOReturnsAlbumDTOFromView() {
+        AlbumDTO result = albumServiceImpl.mapToDTO(albumView(1L, "album_name", "Rock"));
+
+        assertThat(result).isNotNull();
+        assertThat(result).hasFieldOrPropertyWithValue("id", 1L);
+        assertThat(result).hasFieldOrPropertyWithValue("name", "album_name");
+        assertThat(result).hasFieldOrPropertyWithValue("artist.id", 1L);
+        assertThat(result).hasFieldOrPropertyWithValue("artist.name", "artist_name");
+        assertThat(result).hasFieldOrPropertyWithValue("genre", "Rock");
+        assertThat(result).hasFieldOrPropertyWithValue("releaseYear", 2000);
+        assertThat(result).hasFieldOrPropertyWithValue("stockQuantity", 99);
+    }
+
     @Test
     @DisplayName("mapToEntity(AlbumDTO): should return DTO as an album")
     public void AlbumService_MapToEntity_ReturnsMappedAlbum() {
@@ -277,4 +919,20 @@ public class AlbumServiceTest {
         assertThat(result).hasFieldOrPropertyWithValue("id", 1L);
         assertThat(result).hasFieldOrPropertyWithValue("name", "artist_name");
     }
+
+    private AlbumView albumView(Long id, String name, String genre) {
+        return new AlbumView(id,
+                name,
+                artist.getId(),
+                artist.getName(),
+                artist.getCreatedAt(),
+                artist.getModifiedAt(),
+                genre,
+                "https://example.com/cover-art.webp",
+                2000,
+                99,
+                LocalDateTime.now(),
+                LocalDateTime.now(),
+                0L);
+    }
 }
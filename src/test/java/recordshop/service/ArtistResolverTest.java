@@ -0,0 +1,141 @@
+package recordshop.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import recordshop.dto.ArtistDTO;
+import recordshop.model.Artist;
+import recordshop.repository.ArtistRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.Mockito.*;
+
+public class ArtistResolverTest {
+
+    private ArtistRepository mockArtistRepository;
+    private ArtistResolver artistResolver;
+    private Artist artist;
+
+    @BeforeEach
+    public void setUp() {
+        mockArtistRepository = mock(ArtistRepository.class);
+        artistResolver = new ArtistResolver(mockArtistRepository, new CaffeineCacheManager(), mock(PlatformTransactionManager.class));
+        artist = new Artist(1L, "artist_name", null, LocalDateTime.now(), LocalDateTime.now());
+    }
+
+    @Test
+    @DisplayName("find: should query the database once and serve later lookups from the natural-id cache")
+    public void testFindCachesByNormalizedName() {
+        when(mockArtistRepository.findByName("artist_name")).thenReturn(artist);
+
+        ArtistDTO first = artistResolver.find("artist_name");
+        ArtistDTO second = artistResolver.find("  artist_name ");
+
+        assertThat(first).hasFieldOrPropertyWithValue("id", 1L);
+        assertThat(second).isSameAs(first);
+        verify(mockArtistRepository, times(1)).findByName("artist_name");
+    }
+
+    @Test
+    @DisplayName("find: should not cache a missing artist")
+    public void testFindDoesNotCacheMisses() {
+        when(mockArtistRepository.findByName("artist_name")).thenReturn(null, artist);
+
+        assertThat(artistResolver.find("artist_name")).isNull();
+        assertThat(artistResolver.find("artist_name")).isNotNull();
+    }
+
+    @Test
+    @DisplayName("findOrCreate: should insert the artist when it does not exist")
+    public void testFindOrCreateInsertsMissingArtist() {
+        when(mockArtistRepository.findByName("artist_name")).thenReturn(null);
+        when(mockArtistRepository.saveAndFlush(new Artist(null, "artist_name", null, null, null))).thenReturn(artist);
+
+        ArtistDTO result = artistResolver.findOrCreate("artist_name");
+
+        assertThat(result).hasFieldOrPropertyWithValue("id", 1L);
+        assertThat(artistResolver.getCached("artist_name")).isEqualTo(result);
+    }
+
+    @Test
+    @DisplayName("findOrCreate: should insert the artist in the caller's transaction and cache it only once that commits")
+    public void testFindOrCreateCachesArtistAfterCommit() {
+        when(mockArtistRepository.findByName("artist_name")).thenReturn(null);
+        when(mockArtistRepository.saveAndFlush(any(Artist.class))).thenReturn(artist);
+        TransactionSynchronizationManager.initSynchronization();
+
+        try {
+            ArtistDTO result = artistResolver.findOrCreate("artist_name");
+
+            assertThat(result).hasFieldOrPropertyWithValue("id", 1L);
+            assertThat(artistResolver.getCached("artist_name")).isNull();
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            assertThat(artistResolver.getCached("artist_name")).isEqualTo(result);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("findOrCreate: should propagate the unique constraint violation so the caller's transaction rolls back")
+    public void testFindOrCreatePropagatesConflict() {
+        when(mockArtistRepository.findByName("artist_name")).thenReturn(null);
+        when(mockArtistRepository.saveAndFlush(any(Artist.class))).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        assertThatThrownBy(() -> artistResolver.findOrCreate("artist_name"))
+                .isInstanceOf(DataIntegrityViolationException.class);
+        assertThat(artistResolver.getCached("artist_name")).isNull();
+    }
+
+    @Test
+    @DisplayName("findOrCreateAll: should skip the database when every artist is already cached")
+    public void testFindOrCreateAllUsesCachedArtists() {
+        ArtistDTO cached = artistResolver.remember(artist);
+
+        assertThat(artistResolver.findOrCreateAll(List.of(" artist_name"))).containsExactly(entry("artist_name", cached));
+        verifyNoInteractions(mockArtistRepository);
+    }
+
+    @Test
+    @DisplayName("findOrCreateAll: should find existing artists in one query and insert the missing ones in one batch")
+    public void testFindOrCreateAllBatchesLookupAndInsert() {
+        Artist newArtist = new Artist(2L, "new_artist", null, LocalDateTime.now(), LocalDateTime.now());
+        when(mockArtistRepository.findAllByNameIn(Set.of("artist_name", "new_artist"))).thenReturn(List.of(artist));
+        when(mockArtistRepository.saveAll(List.of(new Artist(null, "new_artist", null, null, null))))
+                .thenReturn(List.of(newArtist));
+
+        Map<String, ArtistDTO> result = artistResolver.findOrCreateAll(List.of("artist_name", "new_artist", "new_artist"));
+
+        assertThat(result).extractingByKeys("artist_name", "new_artist").extracting(ArtistDTO::getId).containsExactly(1L, 2L);
+        assertThat(artistResolver.getCached("new_artist")).isEqualTo(result.get("new_artist"));
+        verify(mockArtistRepository, never()).findByName(anyString());
+    }
+
+    @Test
+    @DisplayName("findOrCreateAll: should fall back to the concurrently inserted artists when the batch insert hits the unique constraint")
+    public void testFindOrCreateAllReturnsWinnersOnConflict() {
+        when(mockArtistRepository.findAllByNameIn(Set.of("artist_name"))).thenReturn(List.of());
+        when(mockArtistRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+        when(mockArtistRepository.findByName("artist_name")).thenReturn(artist);
+
+        Map<String, ArtistDTO> result = artistResolver.findOrCreateAll(List.of("artist_name"));
+
+        assertThat(result.get("artist_name")).hasFieldOrPropertyWithValue("id", 1L);
+        verify(mockArtistRepository, never()).save(any(Artist.class));
+        verify(mockArtistRepository, never()).saveAndFlush(any(Artist.class));
+    }
+}
@@ -0,0 +1,62 @@
+package recordshop.sql;
+
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.QueryType;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.listener.QueryUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class SqlStatements implements QueryExecutionListener {
+
+    private static final ThreadLocal<List<String>> STATEMENTS = ThreadLocal.withInitial(ArrayList::new);
+
+    @Override
+    public void beforeQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+    }
+
+    @Override
+    public void afterQuery(ExecutionInfo execInfo, List<QueryInfo> queryInfoList) {
+        queryInfoList.forEach(queryInfo -> STATEMENTS.get().add(queryInfo.getQuery()));
+    }
+
+    public static void reset() {
+        STATEMENTS.get().clear();
+    }
+
+    public static List<String> recorded() {
+        return List.copyOf(STATEMENTS.get());
+    }
+
+    public static void assertSelectCount(int expected) {
+        assertCount(QueryType.SELECT, expected);
+    }
+
+    public static void assertInsertCount(int expected) {
+        assertCount(QueryType.INSERT, expected);
+    }
+
+    public static void assertUpdateCount(int expected) {
+        assertCount(QueryType.UPDATE, expected);
+    }
+
+    public static void assertDeleteCount(int expected) {
+        assertCount(QueryType.DELETE, expected);
+    }
+
+    public static void assertStatementCount(int expected) {
+        assertThat(STATEMENTS.get())
+                .as("SQL statements issued since the last reset")
+                .hasSize(expected);
+    }
+
+    private static void assertCount(QueryType type, int expected) {
+        assertThat(STATEMENTS.get().stream().filter(sql -> QueryUtils.getQueryType(sql) == type).toList())
+                .as("%s statements issued since the last reset, out of %s", type, STATEMENTS.get())
+                .hasSize(expected);
+    }
+}
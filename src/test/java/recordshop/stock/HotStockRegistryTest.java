@@ -0,0 +1,201 @@
+package recordshop.stock;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import recordshop.config.HotStockProperties;
+import recordshop.event.HotStockFlushedEvent;
+import recordshop.exception.InsufficientStockException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+public class HotStockRegistryTest {
+
+    private HotStockProperties properties;
+    private JdbcTemplate jdbcTemplate;
+    private ApplicationEventPublisher eventPublisher;
+    private HotStockRegistry hotStockRegistry;
+
+    @BeforeEach
+    public void setUp() {
+        properties = new HotStockProperties();
+        properties.setEnabled(true);
+        properties.setStripes(4);
+        properties.setPromotionThreshold(10);
+        properties.setFlushInterval(Duration.ofSeconds(1));
+        properties.setDurability(HotStockProperties.Durability.WRITE_BEHIND);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        hotStockRegistry = new HotStockRegistry(properties, jdbcTemplate, eventPublisher,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+        when(jdbcTemplate.queryForList(HotStockRegistry.STOCK_SQL, Long.class, 1L)).thenReturn(List.of(10L));
+        when(jdbcTemplate.batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList())).thenReturn(new int[]{1});
+    }
+
+    @Test
+    @DisplayName("reserve: should take hot stock in memory and flush the total as one batched update")
+    public void testReserveHotStockFlushesBatchedDelta() {
+        hotStockRegistry.promote(1L);
+
+        Map<Long, Long> first = hotStockRegistry.reserve(Map.of(1L, 3), cold -> {});
+        Map<Long, Long> second = hotStockRegistry.reserve(Map.of(1L, 2), cold -> {});
+        hotStockRegistry.flush();
+
+        assertThat(first).containsEntry(1L, 7L);
+        assertThat(second).containsEntry(1L, 5L);
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(HotStockRegistry.FLUSH_SQL), argThat((List<Object[]> batch) ->
+                batch.size() == 1 && batch.getFirst()[0].equals(5L) && batch.getFirst()[2].equals(1L)));
+        verify(eventPublisher, times(1)).publishEvent(new HotStockFlushedEvent(Set.of(1L)));
+    }
+
+    @Test
+    @DisplayName("flush: should not take stock the database no longer has, and demote the album on the next tick")
+    public void testFlushGuardsAgainstOverselling() {
+        when(jdbcTemplate.batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList())).thenReturn(new int[]{0});
+        hotStockRegistry.promote(1L);
+
+        hotStockRegistry.reserve(Map.of(1L, 3), cold -> {});
+        hotStockRegistry.flush();
+
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(HotStockRegistry.FLUSH_SQL), argThat((List<Object[]> batch) ->
+                batch.getFirst()[0].equals(3L) && batch.getFirst()[3].equals(3L)));
+        verifyNoInteractions(eventPublisher);
+
+        hotStockRegistry.tick();
+
+        assertThat(hotStockRegistry.isHot(1L)).isFalse();
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList());
+    }
+
+    @Test
+    @DisplayName("reserve: should reject a shortfall and roll back hot stock when the cold reservation fails")
+    public void testReserveRollsBackOnFailure() {
+        hotStockRegistry.promote(1L);
+
+        assertThrows(InsufficientStockException.class, () -> hotStockRegistry.reserve(Map.of(1L, 11), cold -> {}));
+        assertThrows(IllegalStateException.class, () -> hotStockRegistry.reserve(Map.of(1L, 4, 2L, 1), cold -> {
+            throw new IllegalStateException("cold reservation failed");
+        }));
+
+        assertThat(hotStockRegistry.available(1L)).isEqualTo(10L);
+        hotStockRegistry.flush();
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList());
+    }
+
+    @Test
+    @DisplayName("tick: should promote albums whose reservation rate crosses the threshold")
+    public void testTickPromotesBusyAlbums() {
+        List<Map<Long, Integer>> coldReservations = new ArrayList<>();
+
+        for (int i = 0; i < 10; i++) {
+            hotStockRegistry.reserve(Map.of(1L, 1), coldReservations::add);
+        }
+
+        hotStockRegistry.tick();
+
+        assertThat(coldReservations).hasSize(10);
+        assertThat(hotStockRegistry.isHot(1L)).isTrue();
+        assertThat(hotStockRegistry.available(1L)).isEqualTo(10L);
+    }
+
+    @Test
+    @DisplayName("withoutHotStock: should flush and demote the album before running the action")
+    public void testWithoutHotStockDemotes() {
+        hotStockRegistry.promote(1L);
+        hotStockRegistry.reserve(Map.of(1L, 1), cold -> {});
+
+        boolean hotDuringAction = hotStockRegistry.withoutHotStock(1L, () -> hotStockRegistry.isHot(1L));
+
+        assertThat(hotDuringAction).isFalse();
+        verify(jdbcTemplate, times(1)).batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList());
+    }
+
+    @Test
+    @DisplayName("reserve: should wait for the next flush in group commit mode")
+    public void testReserveWaitsForFlushInGroupCommitMode() throws Exception {
+        properties.setDurability(HotStockProperties.Durability.GROUP_COMMIT);
+        hotStockRegistry.promote(1L);
+
+        CompletableFuture<Map<Long, Long>> reservation =
+                CompletableFuture.supplyAsync(() -> hotStockRegistry.reserve(Map.of(1L, 1), cold -> {}));
+
+        while (!reservation.isDone()) {
+            hotStockRegistry.flush();
+            Thread.sleep(10);
+        }
+
+        assertThat(reservation.get()).containsEntry(1L, 9L);
+        verify(jdbcTemplate, atLeastOnce()).batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList());
+    }
+
+    @Test
+    @DisplayName("reserve: should fail waiters in group commit mode when the flush cannot take their stock")
+    public void testReserveFailsWhenFlushIsRejected() throws Exception {
+        properties.setDurability(HotStockProperties.Durability.GROUP_COMMIT);
+        when(jdbcTemplate.batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList())).thenReturn(new int[]{0});
+        hotStockRegistry.promote(1L);
+
+        CompletableFuture<Map<Long, Long>> reservation =
+                CompletableFuture.supplyAsync(() -> hotStockRegistry.reserve(Map.of(1L, 3), cold -> {}));
+
+        while (!reservation.isDone()) {
+            hotStockRegistry.flush();
+            Thread.sleep(10);
+        }
+
+        ExecutionException failure = assertThrows(ExecutionException.class, reservation::get);
+        assertThat(failure.getCause()).isInstanceOf(InsufficientStockException.class);
+        verifyNoInteractions(eventPublisher);
+
+        hotStockRegistry.tick();
+
+        assertThat(hotStockRegistry.isHot(1L)).isFalse();
+    }
+
+    @Test
+    @DisplayName("reserve: should give back the written stock of other albums when one album of a reservation is rejected")
+    public void testReserveRestocksOtherAlbumsWhenOneIsRejected() throws Exception {
+        properties.setDurability(HotStockProperties.Durability.GROUP_COMMIT);
+        when(jdbcTemplate.queryForList(HotStockRegistry.STOCK_SQL, Long.class, 2L)).thenReturn(List.of(10L));
+        when(jdbcTemplate.batchUpdate(eq(HotStockRegistry.FLUSH_SQL), anyList())).thenAnswer(invocation -> {
+            List<Object[]> batch = invocation.getArgument(1);
+
+            return batch.stream().mapToInt(row -> row[2].equals(1L) ? 0 : 1).toArray();
+        });
+        hotStockRegistry.promote(1L);
+        hotStockRegistry.promote(2L);
+
+        CompletableFuture<Map<Long, Long>> reservation =
+                CompletableFuture.supplyAsync(() -> hotStockRegistry.reserve(Map.of(1L, 3, 2L, 4), cold -> {}));
+
+        while (!reservation.isDone()) {
+            hotStockRegistry.flush();
+            Thread.sleep(10);
+        }
+
+        assertThrows(ExecutionException.class, reservation::get);
+        assertThat(hotStockRegistry.available(2L)).isEqualTo(10L);
+
+        hotStockRegistry.flush();
+
+        verify(jdbcTemplate).batchUpdate(eq(HotStockRegistry.FLUSH_SQL), argThat((List<Object[]> batch) ->
+                batch.size() == 1 && batch.getFirst()[0].equals(-4L) && batch.getFirst()[2].equals(2L)));
+    }
+}
@@ -0,0 +1,69 @@
+package recordshop.stock;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedStockCounterTest {
+
+    @Test
+    @DisplayName("tryReserve: should never hand out more stock than available under contention")
+    public void testTryReserveNeverOversellsUnderContention() throws Exception {
+        StripedStockCounter counter = new StripedStockCounter(8, 1000);
+        AtomicInteger reserved = new AtomicInteger();
+        List<Future<?>> workers = new ArrayList<>();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(16)) {
+            for (int i = 0; i < 16; i++) {
+                workers.add(executor.submit(() -> {
+                    for (int j = 0; j < 200; j++) {
+                        if (counter.tryReserve(1)) {
+                            reserved.incrementAndGet();
+                        }
+                    }
+                }));
+            }
+
+            for (Future<?> worker : workers) {
+                worker.get();
+            }
+        }
+
+        assertThat(reserved).hasValue(1000);
+        assertThat(counter.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("tryReserve: should gather stock spread across stripes for a larger quantity")
+    public void testTryReserveRebalancesFragmentedStock() {
+        StripedStockCounter counter = new StripedStockCounter(4, 10);
+
+        assertThat(counter.tryReserve(9)).isTrue();
+        assertThat(counter.tryReserve(2)).isFalse();
+        assertThat(counter.available()).isEqualTo(1);
+
+        counter.release(3);
+
+        assertThat(counter.tryReserve(4)).isTrue();
+        assertThat(counter.available()).isZero();
+    }
+
+    @Test
+    @DisplayName("drainUnflushed: should return and reset the reserved quantity awaiting a flush")
+    public void testDrainUnflushed() {
+        StripedStockCounter counter = new StripedStockCounter(2, 10);
+        counter.recordUnflushed(2);
+        counter.recordUnflushed(3);
+
+        assertThat(counter.drainUnflushed()).isEqualTo(5);
+        assertThat(counter.drainUnflushed()).isZero();
+    }
+}